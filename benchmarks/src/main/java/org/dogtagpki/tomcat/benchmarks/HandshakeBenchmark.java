@@ -0,0 +1,73 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full and resumed handshakes per second through
+ * JSSContext.createSSLEngine().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class HandshakeBenchmark {
+
+    @State(Scope.Thread)
+    public static class ResumptionState {
+
+        @Setup
+        public void setup(JSSBenchmarkState state) throws Exception {
+            // populate the client and server session caches
+            try (SSLEnginePair pair = state.createPair(true)) {
+                pair.handshake();
+            }
+        }
+    }
+
+    @Benchmark
+    public Object fullHandshake(JSSBenchmarkState state) throws Exception {
+        try (SSLEnginePair pair = state.createPair(false)) {
+            pair.handshake();
+            return pair.getServer().getSession();
+        }
+    }
+
+    @Benchmark
+    public Object resumedHandshake(JSSBenchmarkState state, ResumptionState resumption) throws Exception {
+        try (SSLEnginePair pair = state.createPair(true)) {
+            pair.handshake();
+            return pair.getServer().getSession();
+        }
+    }
+}
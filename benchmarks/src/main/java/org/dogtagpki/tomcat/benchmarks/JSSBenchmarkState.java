@@ -0,0 +1,118 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat.benchmarks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+
+import org.dogtagpki.tomcat.JSSContext;
+import org.mozilla.jss.provider.javax.crypto.JSSNativeTrustManager;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Shared benchmark state: a server JSSContext created the same way
+ * JSSUtil creates it for Tomcat, and a JSS client SSLContext, both
+ * backed by a throwaway NSS database.
+ *
+ * The suite parameter has the form {@code <protocol>/<cipher>}.
+ */
+@State(Scope.Benchmark)
+public class JSSBenchmarkState {
+
+    public static final String PEER_HOST = "localhost";
+
+    @Param({
+        "TLSv1.2/TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+        "TLSv1.2/TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384",
+        "TLSv1.2/TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256",
+        "TLSv1.3/TLS_AES_128_GCM_SHA256",
+        "TLSv1.3/TLS_AES_256_GCM_SHA384",
+        "TLSv1.3/TLS_CHACHA20_POLY1305_SHA256"
+    })
+    public String suite;
+
+    String[] protocols;
+    String[] ciphers;
+
+    JSSContext serverContext;
+    SSLContext clientContext;
+
+    /**
+     * Client engines are keyed by peer host and port in the NSS client
+     * session cache, so a fresh port forces a full handshake. The port
+     * wraps around, so the sessions of these pairs are also invalidated
+     * when they are closed.
+     */
+    final AtomicInteger nextPort = new AtomicInteger(1024);
+
+    @Setup
+    public void setup() throws Exception {
+
+        NSSDatabase.getInstance();
+
+        String[] parts = suite.split("/", 2);
+        protocols = new String[] { parts[0] };
+        ciphers = new String[] { parts[1] };
+
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance("NssX509", "Mozilla-JSS");
+        TrustManager[] tms = new TrustManager[] { new JSSNativeTrustManager() };
+
+        serverContext = new JSSContext(NSSDatabase.SERVER_CERT_NICKNAME);
+        serverContext.init(kmf.getKeyManagers(), tms, null);
+
+        clientContext = SSLContext.getInstance("TLS", "Mozilla-JSS");
+        clientContext.init(kmf.getKeyManagers(), tms, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serverContext.destroy();
+    }
+
+    /**
+     * Creates a connected engine pair. If resumable is true the client
+     * always uses the same peer port so that its session can be resumed,
+     * otherwise each pair gets a unique port.
+     */
+    public SSLEnginePair createPair(boolean resumable) {
+
+        int port = resumable ? 443 : nextPort.updateAndGet(p -> p >= 65535 ? 1024 : p + 1);
+
+        SSLEngine client = clientContext.createSSLEngine(PEER_HOST, port);
+        client.setUseClientMode(true);
+        client.setEnabledProtocols(protocols);
+        client.setEnabledCipherSuites(ciphers);
+
+        SSLEngine server = serverContext.createSSLEngine();
+        server.setUseClientMode(false);
+        server.setEnabledProtocols(protocols);
+        server.setEnabledCipherSuites(ciphers);
+
+        return new SSLEnginePair(client, server, resumable);
+    }
+}
@@ -0,0 +1,402 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.apache.tomcat.util.net.SSLHostConfigCertificate;
+import org.apache.tomcat.util.net.jss.TomcatJSS;
+import org.dogtagpki.tomcat.Http11NioProtocol;
+import org.dogtagpki.tomcat.JSSImplementation;
+
+/**
+ * End-to-end load test for the JSS connector.
+ *
+ * Starts an embedded Tomcat with org.dogtagpki.tomcat.Http11NioProtocol
+ * and JSSImplementation on a throwaway NSS database, then runs a
+ * multi-threaded SunJSSE client against it with keep-alive on and off.
+ *
+ * Usage: LoadTest [--port=N] [--threads=N] [--duration=SECONDS]
+ *                 [--warmup=SECONDS] [--requests=N] [--resume]
+ */
+public class LoadTest {
+
+    static final byte[] BODY = "OK\n".getBytes(StandardCharsets.US_ASCII);
+
+    int port = 18443;
+    int threads = 16;
+    int duration = 30;
+    int warmup = 5;
+    int requestsPerConnection = 100;
+    boolean resume;
+
+    Tomcat tomcat;
+    SSLSocketFactory socketFactory;
+
+    public static void main(String[] args) throws Exception {
+
+        LoadTest loadTest = new LoadTest();
+        loadTest.parseArgs(args);
+
+        loadTest.startServer();
+        try {
+            loadTest.initClient();
+
+            System.out.println(Result.HEADER);
+            System.out.println(loadTest.run(true));
+            System.out.println(loadTest.run(false));
+
+        } finally {
+            loadTest.stopServer();
+        }
+    }
+
+    void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring(7));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring(10));
+            } else if (arg.startsWith("--duration=")) {
+                duration = Integer.parseInt(arg.substring(11));
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--requests=")) {
+                requestsPerConnection = Integer.parseInt(arg.substring(11));
+            } else if (arg.equals("--resume")) {
+                resume = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+    }
+
+    void startServer() throws Exception {
+
+        NSSDatabase db = NSSDatabase.create();
+
+        // initialize JSS the same way JSSListener does
+        TomcatJSS tomcatjss = TomcatJSS.getInstance();
+        tomcatjss.setCertdbDir(db.getDirectory().toString());
+        tomcatjss.setPasswordFile(db.createPasswordFile().toString());
+        tomcatjss.setServerCertNick(NSSDatabase.SERVER_CERT_NICKNAME);
+        tomcatjss.init();
+
+        Path baseDir = Files.createTempDirectory("tomcatjss-loadtest-");
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+
+        Connector connector = new Connector(Http11NioProtocol.class.getName());
+        connector.setPort(port);
+        connector.setSecure(true);
+        connector.setScheme("https");
+        connector.setProperty("SSLEnabled", "true");
+        connector.setProperty("sslImplementationName", JSSImplementation.class.getName());
+        connector.setProperty("maxKeepAliveRequests", "-1");
+
+        SSLHostConfig sslHostConfig = new SSLHostConfig();
+        SSLHostConfigCertificate certificate = new SSLHostConfigCertificate(
+                sslHostConfig, SSLHostConfigCertificate.Type.RSA);
+        certificate.setCertificateKeystoreType("pkcs11");
+        certificate.setCertificateKeystoreProvider("Mozilla-JSS");
+        certificate.setCertificateKeyAlias(NSSDatabase.SERVER_CERT_NICKNAME);
+        sslHostConfig.addCertificate(certificate);
+        connector.addSslHostConfig(sslHostConfig);
+
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", baseDir.toString());
+        Tomcat.addServlet(context, "load", new LoadServlet());
+        context.addServletMappingDecoded("/", "load");
+
+        tomcat.start();
+    }
+
+    void stopServer() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    void initClient() throws Exception {
+
+        // the server certificate is self-signed and only used for this test
+        TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+
+        SSLContext context = SSLContext.getInstance("TLS", "SunJSSE");
+        context.init(null, new TrustManager[] { trustAll }, null);
+        socketFactory = context.getSocketFactory();
+    }
+
+    Result run(boolean keepAlive) throws Exception {
+
+        // warm up the server and the client, results are discarded
+        runPhase(keepAlive, warmup);
+
+        return runPhase(keepAlive, duration);
+    }
+
+    Result runPhase(boolean keepAlive, int seconds) throws Exception {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Worker>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(new Worker(keepAlive, deadline)));
+        }
+
+        Result result = new Result(keepAlive);
+        for (Future<Worker> future : futures) {
+            result.add(future.get());
+        }
+
+        executor.shutdown();
+
+        result.elapsed = System.nanoTime() - start;
+        return result;
+    }
+
+    class Worker implements Callable<Worker> {
+
+        final boolean keepAlive;
+        final long deadline;
+
+        long connections;
+        long requests;
+        long errors;
+        int handshakeCount;
+        long[] handshakes = new long[1024];
+
+        Worker(boolean keepAlive, long deadline) {
+            this.keepAlive = keepAlive;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Worker call() {
+
+            byte[] request = ("GET / HTTP/1.1\r\n"
+                    + "Host: localhost:" + port + "\r\n"
+                    + (keepAlive ? "" : "Connection: close\r\n")
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+            int requestCount = keepAlive ? requestsPerConnection : 1;
+
+            while (System.nanoTime() < deadline) {
+                try (SSLSocket socket = (SSLSocket) socketFactory.createSocket("localhost", port)) {
+
+                    socket.setTcpNoDelay(true);
+
+                    long handshakeStart = System.nanoTime();
+                    socket.startHandshake();
+                    addHandshake(System.nanoTime() - handshakeStart);
+
+                    OutputStream out = socket.getOutputStream();
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+
+                    for (int i = 0; i < requestCount && System.nanoTime() < deadline; i++) {
+                        out.write(request);
+                        out.flush();
+                        readResponse(in);
+                        requests++;
+                    }
+
+                    if (!resume) {
+                        socket.getSession().invalidate();
+                    }
+
+                    connections++;
+
+                } catch (IOException e) {
+                    errors++;
+                }
+            }
+
+            return this;
+        }
+
+        void addHandshake(long nanos) {
+            if (handshakeCount == handshakes.length) {
+                handshakes = Arrays.copyOf(handshakes, handshakes.length * 2);
+            }
+            handshakes[handshakeCount++] = nanos;
+        }
+    }
+
+    static void readResponse(InputStream in) throws IOException {
+
+        int contentLength = -1;
+
+        String line;
+        boolean statusLine = true;
+        while (!(line = readLine(in)).isEmpty()) {
+
+            if (statusLine) {
+                if (!line.startsWith("HTTP/1.1 200")) {
+                    throw new IOException("Unexpected response: " + line);
+                }
+                statusLine = false;
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).equalsIgnoreCase("Content-Length")) {
+                contentLength = Integer.parseInt(line.substring(colon + 1).trim());
+            }
+        }
+
+        if (contentLength < 0) {
+            throw new IOException("Missing Content-Length");
+        }
+
+        for (int i = 0; i < contentLength; i++) {
+            if (in.read() < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+        }
+    }
+
+    static String readLine(InputStream in) throws IOException {
+
+        StringBuilder sb = new StringBuilder();
+
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+            if (c != '\r') {
+                sb.append((char) c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    static class LoadServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setContentType("text/plain");
+            response.setContentLength(BODY.length);
+            response.getOutputStream().write(BODY);
+        }
+    }
+
+    static class Result {
+
+        static final String HEADER = String.format(Locale.ROOT,
+                "%-10s %12s %12s %14s %14s %8s",
+                "keep-alive", "conn/s", "req/s", "hs p50 (ms)", "hs p99 (ms)", "errors");
+
+        final boolean keepAlive;
+
+        long elapsed;
+        long connections;
+        long requests;
+        long errors;
+        long[] handshakes = new long[0];
+
+        Result(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        void add(Worker worker) {
+            connections += worker.connections;
+            requests += worker.requests;
+            errors += worker.errors;
+
+            int offset = handshakes.length;
+            handshakes = Arrays.copyOf(handshakes, offset + worker.handshakeCount);
+            System.arraycopy(worker.handshakes, 0, handshakes, offset, worker.handshakeCount);
+        }
+
+        double percentile(double p) {
+            if (handshakes.length == 0) {
+                return 0;
+            }
+            long[] sorted = handshakes.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsed / 1e9;
+            return String.format(Locale.ROOT,
+                    "%-10s %12.1f %12.1f %14.3f %14.3f %8d",
+                    keepAlive ? "on" : "off",
+                    connections / seconds,
+                    requests / seconds,
+                    percentile(50),
+                    percentile(99),
+                    errors);
+        }
+    }
+}
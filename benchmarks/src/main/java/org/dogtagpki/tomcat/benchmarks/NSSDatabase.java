@@ -0,0 +1,166 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.mozilla.jss.CryptoManager;
+import org.mozilla.jss.InitializationValues;
+import org.mozilla.jss.crypto.AlreadyInitializedException;
+
+/**
+ * Throwaway NSS database for benchmarks.
+ *
+ * The database is created with certutil in a temporary directory,
+ * populated with a self-signed server certificate which is trusted
+ * as a CA so the same database can be used on the client side,
+ * and removed when the JVM exits.
+ */
+public class NSSDatabase {
+
+    public static final String SERVER_CERT_NICKNAME = "Server-Cert";
+
+    private static NSSDatabase instance;
+
+    private final Path dir;
+
+    private NSSDatabase(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Returns the database for this JVM, creating it on first use
+     * without initializing CryptoManager.
+     */
+    public static synchronized NSSDatabase create() throws Exception {
+
+        if (instance != null) {
+            return instance;
+        }
+
+        Path dir = Files.createTempDirectory("tomcatjss-nssdb-");
+        NSSDatabase db = new NSSDatabase(dir);
+        Runtime.getRuntime().addShutdownHook(new Thread(db::delete));
+
+        db.createDatabase();
+
+        instance = db;
+        return instance;
+    }
+
+    /**
+     * Returns the database for this JVM, creating it and initializing
+     * CryptoManager on first use. NSS can only be initialized once per
+     * process so the database is shared by all benchmarks in a fork.
+     */
+    public static synchronized NSSDatabase getInstance() throws Exception {
+
+        NSSDatabase db = create();
+
+        InitializationValues vals = new InitializationValues(db.dir.toString());
+        vals.removeSunProvider = false;
+        vals.installJSSProvider = true;
+
+        try {
+            CryptoManager.initialize(vals);
+        } catch (AlreadyInitializedException e) {
+            // initialized by another component in this JVM
+        }
+
+        return db;
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Creates an empty password file for TomcatJSS since the
+     * internal token has no password.
+     */
+    public Path createPasswordFile() throws IOException {
+        Path passwordFile = dir.resolve("password.conf");
+        if (!Files.exists(passwordFile)) {
+            Files.createFile(passwordFile);
+        }
+        return passwordFile;
+    }
+
+    private void createDatabase() throws IOException, InterruptedException {
+
+        run("certutil", "-N", "-d", dir.toString(), "--empty-password");
+
+        byte[] noise = new byte[2048];
+        new SecureRandom().nextBytes(noise);
+        Path noiseFile = dir.resolve("noise.bin");
+        Files.write(noiseFile, noise);
+
+        try {
+            run("certutil", "-S",
+                    "-d", dir.toString(),
+                    "-n", SERVER_CERT_NICKNAME,
+                    "-s", "CN=localhost",
+                    "-x",
+                    "-t", "CTu,Cu,Cu",
+                    "-k", "rsa",
+                    "-g", "2048",
+                    "-Z", "SHA256",
+                    "-v", "12",
+                    "-m", Long.toString(System.currentTimeMillis() / 1000),
+                    "-8", "localhost",
+                    "-z", noiseFile.toString());
+        } finally {
+            Files.deleteIfExists(noiseFile);
+        }
+    }
+
+    private void run(String... command) throws IOException, InterruptedException {
+
+        List<String> args = new ArrayList<>(Arrays.asList(command));
+        Process process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        int rc = process.waitFor();
+        if (rc != 0) {
+            throw new IOException("Command failed (" + rc + "): " + String.join(" ", args));
+        }
+    }
+
+    private void delete() {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Record layer throughput over an established connection.
+ *
+ * Each operation is one payload byte and the output unit is
+ * microseconds, so the reported ops/us equals MB/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RecordBenchmark {
+
+    public static final int PAYLOAD_SIZE = 16384;
+
+    @State(Scope.Thread)
+    public static class ConnectionState {
+
+        SSLEnginePair pair;
+        ByteBuffer payload;
+
+        @Setup
+        public void setup(JSSBenchmarkState state) throws Exception {
+
+            pair = state.createPair(false);
+            pair.handshake();
+
+            byte[] data = new byte[PAYLOAD_SIZE];
+            new Random(0).nextBytes(data);
+            payload = ByteBuffer.wrap(data);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pair.close();
+        }
+    }
+
+    /**
+     * Client wrap plus server unwrap.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_SIZE)
+    public int clientToServer(ConnectionState connection) throws Exception {
+        return connection.pair.clientToServer(connection.payload);
+    }
+
+    /**
+     * Server wrap plus client unwrap.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_SIZE)
+    public int serverToClient(ConnectionState connection) throws Exception {
+        return connection.pair.serverToClient(connection.payload);
+    }
+}
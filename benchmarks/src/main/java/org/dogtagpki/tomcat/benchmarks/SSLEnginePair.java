@@ -0,0 +1,214 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat.benchmarks;
+
+import java.nio.ByteBuffer;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Client and server SSLEngines connected through in-memory buffers.
+ *
+ * All network buffers are kept in write mode between calls.
+ */
+public class SSLEnginePair implements AutoCloseable {
+
+    public static final int MAX_HANDSHAKE_STEPS = 1000;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final SSLEngine client;
+    private final SSLEngine server;
+    private final boolean resumable;
+
+    private final ByteBuffer clientToServer;
+    private final ByteBuffer serverToClient;
+    private final ByteBuffer clientApp;
+    private final ByteBuffer serverApp;
+
+    public SSLEnginePair(SSLEngine client, SSLEngine server) {
+        this(client, server, true);
+    }
+
+    /**
+     * @param resumable false to invalidate the client session on close
+     *        so that later pairs cannot resume it
+     */
+    public SSLEnginePair(SSLEngine client, SSLEngine server, boolean resumable) {
+        this.client = client;
+        this.server = server;
+        this.resumable = resumable;
+
+        SSLSession session = client.getSession();
+        int packetSize = session.getPacketBufferSize();
+        int appSize = session.getApplicationBufferSize();
+
+        clientToServer = ByteBuffer.allocate(4 * packetSize);
+        serverToClient = ByteBuffer.allocate(4 * packetSize);
+        clientApp = ByteBuffer.allocate(4 * appSize);
+        serverApp = ByteBuffer.allocate(4 * appSize);
+    }
+
+    public SSLEngine getClient() {
+        return client;
+    }
+
+    public SSLEngine getServer() {
+        return server;
+    }
+
+    public void handshake() throws SSLException {
+
+        client.beginHandshake();
+        server.beginHandshake();
+
+        int steps = 0;
+        while (isHandshaking(client) || isHandshaking(server)) {
+
+            if (++steps > MAX_HANDSHAKE_STEPS) {
+                throw new SSLException("Handshake did not complete after " + MAX_HANDSHAKE_STEPS + " steps: "
+                        + "client " + client.getHandshakeStatus() + ", server " + server.getHandshakeStatus());
+            }
+
+            step(client, serverToClient, clientToServer, clientApp);
+            step(server, clientToServer, serverToClient, serverApp);
+        }
+
+        // consume post-handshake messages (e.g. TLS 1.3 session tickets)
+        drain(client, serverToClient, clientApp);
+        drain(server, clientToServer, serverApp);
+    }
+
+    /**
+     * Sends the payload from the client to the server and returns
+     * the number of plaintext bytes received by the server.
+     */
+    public int clientToServer(ByteBuffer payload) throws SSLException {
+        return transfer(client, server, payload, clientToServer, serverApp);
+    }
+
+    /**
+     * Sends the payload from the server to the client and returns
+     * the number of plaintext bytes received by the client.
+     */
+    public int serverToClient(ByteBuffer payload) throws SSLException {
+        return transfer(server, client, payload, serverToClient, clientApp);
+    }
+
+    private static boolean isHandshaking(SSLEngine engine) {
+        HandshakeStatus status = engine.getHandshakeStatus();
+        return status != HandshakeStatus.NOT_HANDSHAKING && status != HandshakeStatus.FINISHED;
+    }
+
+    private static void step(SSLEngine engine, ByteBuffer in, ByteBuffer out, ByteBuffer app) throws SSLException {
+
+        switch (engine.getHandshakeStatus()) {
+        case NEED_WRAP:
+            engine.wrap(EMPTY, out);
+            break;
+
+        case NEED_UNWRAP:
+            in.flip();
+            app.clear();
+            engine.unwrap(in, app);
+            in.compact();
+            break;
+
+        case NEED_TASK:
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+            break;
+
+        default:
+            break;
+        }
+    }
+
+    private static void drain(SSLEngine engine, ByteBuffer in, ByteBuffer app) throws SSLException {
+
+        in.flip();
+        while (in.hasRemaining()) {
+            app.clear();
+            SSLEngineResult result = engine.unwrap(in, app);
+            if (result.getStatus() != SSLEngineResult.Status.OK || result.bytesConsumed() == 0) {
+                break;
+            }
+        }
+        in.compact();
+    }
+
+    private static int transfer(
+            SSLEngine from,
+            SSLEngine to,
+            ByteBuffer payload,
+            ByteBuffer net,
+            ByteBuffer app) throws SSLException {
+
+        payload.rewind();
+        while (payload.hasRemaining()) {
+            SSLEngineResult result = from.wrap(payload, net);
+            if (result.getStatus() != SSLEngineResult.Status.OK) {
+                throw new SSLException("Unable to wrap payload: " + result);
+            }
+        }
+
+        int received = 0;
+
+        net.flip();
+        while (net.hasRemaining()) {
+            app.clear();
+            SSLEngineResult result = to.unwrap(net, app);
+            if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+                break;
+            }
+            if (result.getStatus() != SSLEngineResult.Status.OK) {
+                throw new SSLException("Unable to unwrap payload: " + result);
+            }
+            received += result.bytesProduced();
+        }
+        net.compact();
+
+        return received;
+    }
+
+    @Override
+    public void close() {
+        if (!resumable) {
+            client.getSession().invalidate();
+        }
+        close(client);
+        close(server);
+    }
+
+    private static void close(SSLEngine engine) {
+        engine.closeOutbound();
+        try {
+            engine.closeInbound();
+        } catch (SSLException e) {
+            // no close_notify from peer, expected when tearing down
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OCSP check that does not tie up handshake threads on slow responders.
+ *
+ * - Responder requests run on a small dedicated thread pool. Concurrent
+ *   checks of the same certificate share a single request.
+ * - A handshake waits at most the handshake timeout for the response.
+ *   The request keeps running and its result is cached for the next
+ *   handshake.
+ * - Cached responses are refreshed in the background once most of their
+ *   lifetime has passed, so frequently used certificates never wait.
+ * - With soft-fail, a handshake is allowed if the responder cannot be
+ *   reached in time. Revoked, unknown and invalid responses are always
+ *   rejected.
+ * - Each responder has a circuit breaker so that a failing responder is
+ *   not contacted (and not waited for) until the retry interval passes.
+ */
+public class AsyncOCSPChecker implements RevocationChecker {
+
+    public static final Logger logger = LoggerFactory.getLogger(AsyncOCSPChecker.class);
+
+    static final int THREADS = 4;
+
+    // refresh a response once this fraction of its cache lifetime has passed
+    static final double REFRESH_RATIO = 0.75;
+
+    private final OCSPChecker checker;
+    private final OCSPResponseCache cache;
+
+    private final boolean softFail;
+    private final long handshakeTimeout; // milliseconds
+    private final int failureThreshold;
+    private final int retryInterval; // seconds
+
+    private final ExecutorService executor;
+
+    private final Map<String, CompletableFuture<OCSPResponseInfo>> requests = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder softFailures = new LongAdder();
+
+    /**
+     * @param handshakeTimeout seconds a handshake waits for the responder
+     * @param failureThreshold consecutive failures before a responder is skipped
+     * @param retryInterval seconds before a skipped responder is tried again
+     */
+    public AsyncOCSPChecker(
+            OCSPChecker checker,
+            boolean softFail,
+            int handshakeTimeout,
+            int failureThreshold,
+            int retryInterval) {
+
+        this.checker = checker;
+        this.cache = checker.getCache();
+        this.softFail = softFail;
+        this.handshakeTimeout = handshakeTimeout * 1000L;
+        this.failureThreshold = failureThreshold;
+        this.retryInterval = retryInterval;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread thread = new Thread(r, "TomcatJSS-OCSP-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void check(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+
+        String key = checker.getKey(cert, issuer);
+
+        OCSPResponseCache.Entry entry = cache.getEntry(key);
+        if (entry != null) {
+            OCSPResponseInfo response = checker.getCachedResponse(key, cert, issuer);
+            if (response != null) {
+                cacheHits.increment();
+
+                long refreshTime = entry.fetched + (long) ((entry.expires - entry.fetched) * REFRESH_RATIO);
+                if (System.currentTimeMillis() >= refreshTime) {
+                    refresh(key, cert, issuer);
+                }
+
+                checker.checkStatus(cert, issuer, response);
+                return;
+            }
+        }
+
+        CompletableFuture<OCSPResponseInfo> future = request(key, cert, issuer);
+        OCSPResponseInfo response;
+
+        try {
+            response = future.get(handshakeTimeout, TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            unavailable(cert, new OCSPUnavailableException("OCSP responder did not answer within "
+                    + handshakeTimeout / 1000 + " seconds for " + cert.getSubjectX500Principal()));
+            return;
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OCSPUnavailableException) {
+                unavailable(cert, (OCSPUnavailableException) cause);
+                return;
+            }
+            if (cause instanceof CertificateException) {
+                throw (CertificateException) cause;
+            }
+            throw new CertificateException(cause.getMessage(), cause);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CertificateException("Interrupted while checking OCSP status", e);
+        }
+
+        checker.checkStatus(cert, issuer, response);
+    }
+
+    @Override
+    public long getExpirationTime(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+        return checker.getExpirationTime(cert, issuer);
+    }
+
+    void unavailable(X509Certificate cert, OCSPUnavailableException e) throws OCSPUnavailableException {
+
+        if (!softFail) {
+            throw e;
+        }
+
+        softFailures.increment();
+        logger.warn("AsyncOCSPChecker: accepting {} without OCSP check: {}",
+                cert.getSubjectX500Principal(), e.getMessage());
+    }
+
+    void refresh(String key, X509Certificate cert, X509Certificate issuer) {
+
+        if (requests.containsKey(key)) {
+            return;
+        }
+
+        refreshes.increment();
+        logger.debug("AsyncOCSPChecker: refreshing OCSP response for {}", cert.getSubjectX500Principal());
+
+        request(key, cert, issuer).whenComplete((response, e) -> {
+            if (e != null) {
+                // the cached response is used until it expires
+                logger.debug("AsyncOCSPChecker: unable to refresh OCSP response: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Returns the pending request for the certificate, or starts a new one.
+     */
+    CompletableFuture<OCSPResponseInfo> request(String key, X509Certificate cert, X509Certificate issuer) {
+
+        CompletableFuture<OCSPResponseInfo> future = new CompletableFuture<>();
+
+        CompletableFuture<OCSPResponseInfo> pending = requests.putIfAbsent(key, future);
+        if (pending != null) {
+            return pending;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    OCSPResponseInfo response = fetch(cert, issuer);
+                    cache.put(key, response);
+                    future.complete(response);
+
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+
+                } finally {
+                    requests.remove(key, future);
+                }
+            });
+
+        } catch (RejectedExecutionException e) {
+            requests.remove(key, future);
+            future.completeExceptionally(new OCSPUnavailableException("OCSP checker is stopped", e));
+        }
+
+        return future;
+    }
+
+    OCSPResponseInfo fetch(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+
+        String url = checker.getResponderURL(cert);
+
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(url,
+                u -> new CircuitBreaker("OCSP responder " + u, failureThreshold, retryInterval));
+
+        if (!circuitBreaker.allowRequest()) {
+            throw new OCSPUnavailableException("OCSP responder " + url + " is unavailable");
+        }
+
+        try {
+            OCSPResponseInfo response = checker.fetch(url, cert, issuer);
+            circuitBreaker.recordSuccess();
+            return response;
+
+        } catch (OCSPUnavailableException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+
+        } catch (CertificateException | RuntimeException e) {
+            // the responder answered, the problem is the response
+            circuitBreaker.recordSuccess();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getSoftFailures() {
+        return softFailures.sum();
+    }
+
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return circuitBreakers;
+    }
+}
@@ -0,0 +1,81 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Makes an IPasswordStore, by default PlainPasswordFile, usable as an
+ * IAsyncPasswordStore. The store is initialized on its own thread and
+ * then answers from memory.
+ */
+public class AsyncPasswordStoreAdapter implements IAsyncPasswordStore {
+
+    private final IPasswordStore store;
+
+    public AsyncPasswordStoreAdapter() {
+        this(new PlainPasswordFile());
+    }
+
+    public AsyncPasswordStoreAdapter(IPasswordStore store) {
+        this.store = store;
+    }
+
+    public IPasswordStore getPasswordStore() {
+        return store;
+    }
+
+    @Override
+    public CompletableFuture<Void> init(String pwdPath) {
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Thread thread = new Thread(() -> {
+            try {
+                store.init(pwdPath);
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, "TomcatJSS-PasswordStore");
+
+        thread.setDaemon(true);
+        thread.start();
+
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getTags() {
+        return CompletableFuture.completedFuture(Collections.list(store.getTags()));
+    }
+
+    @Override
+    public CompletableFuture<char[]> getPassword(String tag, int iteration) {
+        String password = store.getPassword(tag, iteration);
+        return CompletableFuture.completedFuture(password == null ? null : password.toCharArray());
+    }
+
+    @Override
+    public void close() {
+    }
+}
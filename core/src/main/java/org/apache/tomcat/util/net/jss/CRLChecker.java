@@ -0,0 +1,498 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.cert.CRL;
+import java.security.cert.CRLReason;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.CertificateRevokedException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.mozilla.jss.CryptoManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Revocation check against CRLs stored in a local directory.
+ *
+ * The directory may contain full and delta CRLs, DER or PEM, several
+ * per file. For each issuer the latest full CRL and the latest delta CRL
+ * that applies to it are verified with the CA certificate in the NSS
+ * database and merged into a CRLIndex, so that a handshake only needs a
+ * binary search. The directory is scanned again periodically and only
+ * the issuers whose files changed are rebuilt.
+ *
+ * If an index file is configured, the indexes are written to it after
+ * each change and memory-mapped at startup as long as no CRL is newer
+ * than the file.
+ *
+ * A certificate is rejected if there is no CRL for its issuer or if the
+ * CRL has passed its nextUpdate time. Indirect CRLs and partitioned CRLs
+ * (issuing distribution points) are not supported.
+ */
+public class CRLChecker implements RevocationChecker {
+
+    public static final Logger logger = LoggerFactory.getLogger(CRLChecker.class);
+
+    static final class CRLFile {
+
+        final long lastModified;
+        final long size;
+        final Set<X500Principal> issuers;
+
+        CRLFile(long lastModified, long size, Set<X500Principal> issuers) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.issuers = issuers;
+        }
+    }
+
+    private final Path directory;
+    private final Path indexFile;
+    private final int updateInterval; // seconds
+
+    private final Map<X500Principal, CRLIndex> indexes = new ConcurrentHashMap<>();
+
+    // files found by the last scan, guarded by this
+    private final Map<Path, CRLFile> files = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param indexFile prebuilt index file, or null
+     * @param updateInterval seconds between directory scans, 0 to disable
+     */
+    public CRLChecker(Path directory, Path indexFile, int updateInterval) {
+        this.directory = directory;
+        this.indexFile = indexFile;
+        this.updateInterval = updateInterval;
+    }
+
+    /**
+     * Loads the CRLs, from the index file if it is up to date, and starts
+     * the periodic directory scan.
+     */
+    public void start() throws IOException {
+
+        boolean mapped = false;
+
+        if (indexFile != null && isIndexFileCurrent()) {
+            try {
+                indexes.putAll(CRLIndexFile.read(indexFile));
+                mapped = true;
+                logger.info("CRLChecker: loaded {} CRL(s) from {}", indexes.size(), indexFile);
+
+            } catch (IOException e) {
+                logger.warn("CRLChecker: unable to load {}: {}", indexFile, e.getMessage());
+            }
+        }
+
+        if (!mapped) {
+            update();
+        }
+
+        if (updateInterval <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TomcatJSS-CRLUpdater");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // with a mapped index the first scan only records the files and
+        // keeps the mapped indexes of the CRLs that have not changed
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                update();
+            } catch (Throwable e) {
+                logger.warn("CRLChecker: unable to update CRLs: {}", e.getMessage(), e);
+            }
+        }, mapped ? 0 : updateInterval, updateInterval, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns true if the index file is newer than the CRL directory and
+     * all files in it.
+     */
+    boolean isIndexFileCurrent() throws IOException {
+
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+
+        long indexTime = Files.getLastModifiedTime(indexFile).toMillis();
+
+        // a CRL file has been removed or renamed since the index was
+        // written (writing the index does not count, see CRLIndexFile)
+        if (Files.getLastModifiedTime(directory).toMillis() > indexTime) {
+            return false;
+        }
+
+        for (Path file : listFiles()) {
+            if (Files.getLastModifiedTime(file).toMillis() > indexTime) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    List<Path> listFiles() throws IOException {
+
+        List<Path> list = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String filename = file.getFileName().toString();
+                if (filename.startsWith(".") || filename.endsWith(".tmp") || file.equals(indexFile)) {
+                    continue;
+                }
+                if (Files.isRegularFile(file)) {
+                    list.add(file);
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Scans the CRL directory and rebuilds the indexes of the issuers
+     * whose CRL files have been added, changed or removed.
+     */
+    public synchronized void update() throws IOException {
+
+        Set<X500Principal> affected = new HashSet<>();
+        Map<Path, List<X509CRL>> parsed = new HashMap<>();
+
+        if (files.isEmpty()) {
+            // first scan, also check indexes loaded from the index file
+            affected.addAll(indexes.keySet());
+        }
+
+        Map<Path, BasicFileAttributes> current = new HashMap<>();
+        for (Path file : listFiles()) {
+            current.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+        }
+
+        for (Path file : new ArrayList<>(files.keySet())) {
+            if (!current.containsKey(file)) {
+                logger.info("CRLChecker: {} removed", file);
+                affected.addAll(files.remove(file).issuers);
+            }
+        }
+
+        for (Map.Entry<Path, BasicFileAttributes> e : current.entrySet()) {
+
+            Path file = e.getKey();
+            BasicFileAttributes attrs = e.getValue();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+
+            CRLFile crlFile = files.get(file);
+            if (crlFile != null && crlFile.lastModified == lastModified && crlFile.size == attrs.size()) {
+                continue;
+            }
+
+            logger.debug("CRLChecker: reading {}", file);
+
+            List<X509CRL> crls = parse(file);
+            parsed.put(file, crls);
+
+            Set<X500Principal> issuers = new HashSet<>();
+            for (X509CRL crl : crls) {
+                issuers.add(crl.getIssuerX500Principal());
+            }
+
+            if (crlFile != null) {
+                affected.addAll(crlFile.issuers);
+            }
+            affected.addAll(issuers);
+
+            files.put(file, new CRLFile(lastModified, attrs.size(), issuers));
+        }
+
+        boolean changed = false;
+
+        for (X500Principal issuer : affected) {
+            changed |= rebuild(issuer, parsed);
+        }
+
+        if (changed && indexFile != null) {
+            try {
+                CRLIndexFile.write(indexFile, new ArrayList<>(indexes.values()));
+            } catch (IOException e) {
+                logger.warn("CRLChecker: unable to write {}: {}", indexFile, e.getMessage(), e);
+            }
+        }
+    }
+
+    List<X509CRL> parse(Path file) {
+
+        List<X509CRL> crls = new ArrayList<>();
+
+        try (InputStream is = Files.newInputStream(file)) {
+            // use the JDK implementation for delta CRL and reason code support
+            CertificateFactory cf = CertificateFactory.getInstance("X.509", "SUN");
+            for (CRL crl : cf.generateCRLs(is)) {
+                crls.add((X509CRL) crl);
+            }
+
+        } catch (IOException | GeneralSecurityException e) {
+            logger.warn("CRLChecker: unable to read {}: {}", file, e.getMessage());
+        }
+
+        return crls;
+    }
+
+    /**
+     * Rebuilds the index of an issuer from its current CRLs.
+     *
+     * @return true if the index has changed
+     */
+    boolean rebuild(X500Principal issuer, Map<Path, List<X509CRL>> parsed) throws IOException {
+
+        X509CRL base = null;
+        X509Certificate baseSigner = null;
+        BigInteger baseNumber = null;
+
+        List<X509CRL> deltas = new ArrayList<>();
+
+        for (Map.Entry<Path, CRLFile> e : files.entrySet()) {
+
+            if (!e.getValue().issuers.contains(issuer)) {
+                continue;
+            }
+
+            for (X509CRL crl : parsed.computeIfAbsent(e.getKey(), this::parse)) {
+
+                if (!crl.getIssuerX500Principal().equals(issuer)) {
+                    continue;
+                }
+
+                X509Certificate signer;
+                BigInteger number;
+
+                try {
+                    if (CRLIndex.getBaseCRLNumber(crl) != null) {
+                        deltas.add(crl);
+                        continue;
+                    }
+
+                    signer = findSigner(crl);
+                    if (signer == null) {
+                        continue;
+                    }
+
+                    number = CRLIndex.getCRLNumber(crl);
+
+                } catch (IOException ex) {
+                    logger.warn("CRLChecker: invalid CRL from {}: {}", issuer, ex.getMessage());
+                    continue;
+                }
+
+                if (base == null || isNewer(crl, number, base, baseNumber)) {
+                    base = crl;
+                    baseSigner = signer;
+                    baseNumber = number;
+                }
+            }
+        }
+
+        if (base == null) {
+            if (indexes.remove(issuer) != null) {
+                logger.warn("CRLChecker: no valid CRL for {}", issuer);
+                return true;
+            }
+            return false;
+        }
+
+        X509CRL delta = null;
+        BigInteger deltaNumber = null;
+
+        for (X509CRL crl : deltas) {
+
+            BigInteger number;
+            BigInteger baseCRLNumber;
+
+            try {
+                number = CRLIndex.getCRLNumber(crl);
+                baseCRLNumber = CRLIndex.getBaseCRLNumber(crl);
+
+            } catch (IOException e) {
+                logger.warn("CRLChecker: invalid delta CRL from {}: {}", issuer, e.getMessage());
+                continue;
+            }
+
+            // a delta CRL applies to the base CRLs from its BaseCRLNumber on
+            if (baseNumber == null || number == null
+                    || baseCRLNumber.compareTo(baseNumber) > 0
+                    || number.compareTo(baseNumber) <= 0
+                    || deltaNumber != null && number.compareTo(deltaNumber) <= 0) {
+                continue;
+            }
+
+            if (!isSignedBy(crl, baseSigner)) {
+                logger.warn("CRLChecker: invalid delta CRL {} for {}", number, issuer);
+                continue;
+            }
+
+            delta = crl;
+            deltaNumber = number;
+        }
+
+        CRLIndex current = indexes.get(issuer);
+        if (current != null
+                && Objects.equals(current.crlNumber, baseNumber)
+                && Objects.equals(current.deltaCRLNumber, deltaNumber)
+                && Objects.equals(current.thisUpdate, delta == null ? base.getThisUpdate() : delta.getThisUpdate())) {
+            return false;
+        }
+
+        CRLIndex index = CRLIndex.build(base, delta, baseSigner.getPublicKey().getEncoded());
+        indexes.put(issuer, index);
+
+        logger.info("CRLChecker: loaded CRL {}{} for {}: {} revoked certificate(s)",
+                baseNumber, deltaNumber == null ? "" : " + delta " + deltaNumber, issuer, index.count);
+
+        return true;
+    }
+
+    static boolean isNewer(X509CRL crl, BigInteger number, X509CRL other, BigInteger otherNumber) {
+
+        if (number != null && otherNumber != null) {
+            return number.compareTo(otherNumber) > 0;
+        }
+
+        return crl.getThisUpdate().after(other.getThisUpdate());
+    }
+
+    /**
+     * Returns the CA certificate in the NSS database that signed the CRL,
+     * or null if there is none.
+     */
+    X509Certificate findSigner(X509CRL crl) {
+
+        try {
+            for (org.mozilla.jss.crypto.X509Certificate caCert : CryptoManager.getInstance().getCACerts()) {
+
+                if (!(caCert instanceof X509Certificate)) {
+                    continue;
+                }
+
+                X509Certificate cert = (X509Certificate) caCert;
+                if (cert.getSubjectX500Principal().equals(crl.getIssuerX500Principal()) && isSignedBy(crl, cert)) {
+                    return cert;
+                }
+            }
+
+        } catch (Exception e) {
+            logger.warn("CRLChecker: unable to get CA certificates: {}", e.getMessage(), e);
+            return null;
+        }
+
+        logger.warn("CRLChecker: unable to verify CRL from {}", crl.getIssuerX500Principal());
+        return null;
+    }
+
+    static boolean isSignedBy(X509CRL crl, X509Certificate cert) {
+        try {
+            crl.verify(cert.getPublicKey());
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void check(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+
+        CRLIndex index = indexes.get(cert.getIssuerX500Principal());
+        if (index == null) {
+            throw new CertificateException("No CRL for " + cert.getIssuerX500Principal());
+        }
+
+        if (!Arrays.equals(index.issuerKey, issuer.getPublicKey().getEncoded())) {
+            throw new CertificateException("CRL for " + cert.getIssuerX500Principal()
+                    + " was not issued by the issuer of " + cert.getSubjectX500Principal());
+        }
+
+        if (index.isExpired(System.currentTimeMillis())) {
+            throw new CertificateException("CRL for " + cert.getIssuerX500Principal()
+                    + " expired on " + index.nextUpdate);
+        }
+
+        if (index.isRevoked(cert.getSerialNumber())) {
+            // the index does not keep revocation dates and reasons
+            throw new CertificateRevokedException(
+                    index.thisUpdate,
+                    CRLReason.UNSPECIFIED,
+                    cert.getIssuerX500Principal(),
+                    Collections.emptyMap());
+        }
+    }
+
+    @Override
+    public long getExpirationTime(X509Certificate cert, X509Certificate issuer) {
+
+        CRLIndex index = indexes.get(cert.getIssuerX500Principal());
+        if (index == null) {
+            return 0;
+        }
+
+        return index.nextUpdate == null ? Long.MAX_VALUE : index.nextUpdate.getTime();
+    }
+
+    public int getSize() {
+        return indexes.size();
+    }
+}
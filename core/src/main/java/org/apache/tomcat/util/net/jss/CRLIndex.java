@@ -0,0 +1,266 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.cert.CRLReason;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.mozilla.jss.asn1.ASN1Util;
+import org.mozilla.jss.asn1.INTEGER;
+import org.mozilla.jss.asn1.InvalidBERException;
+import org.mozilla.jss.asn1.OCTET_STRING;
+
+/**
+ * Revoked serial numbers of one issuer, built from its latest CRL and
+ * optionally a delta CRL.
+ *
+ * The serial numbers are stored as sorted fixed-width two's complement
+ * records in a single buffer, so a lookup is a binary search without
+ * any object allocation per entry. The buffer can be on the heap or
+ * memory-mapped from a CRLIndexFile.
+ */
+final class CRLIndex {
+
+    // id-ce-cRLNumber
+    static final String CRL_NUMBER_OID = "2.5.29.20";
+
+    // id-ce-deltaCRLIndicator
+    static final String DELTA_CRL_INDICATOR_OID = "2.5.29.27";
+
+    final X500Principal issuer;
+    final byte[] issuerKey; // encoded public key that signed the CRLs
+    final Date thisUpdate;
+    final Date nextUpdate;
+    final BigInteger crlNumber;
+    final BigInteger deltaCRLNumber;
+
+    final int width; // bytes per serial number
+    final int count;
+    final ByteBuffer serials;
+
+    CRLIndex(
+            X500Principal issuer,
+            byte[] issuerKey,
+            Date thisUpdate,
+            Date nextUpdate,
+            BigInteger crlNumber,
+            BigInteger deltaCRLNumber,
+            int width,
+            int count,
+            ByteBuffer serials) {
+
+        this.issuer = issuer;
+        this.issuerKey = issuerKey;
+        this.thisUpdate = thisUpdate;
+        this.nextUpdate = nextUpdate;
+        this.crlNumber = crlNumber;
+        this.deltaCRLNumber = deltaCRLNumber;
+        this.width = width;
+        this.count = count;
+        this.serials = serials;
+    }
+
+    /**
+     * Builds the index of a base CRL and an optional delta CRL. Both must
+     * already be verified.
+     */
+    static CRLIndex build(X509CRL base, X509CRL delta, byte[] issuerKey) throws IOException {
+
+        Set<BigInteger> revoked = new HashSet<>();
+        addRevoked(revoked, base);
+
+        Date thisUpdate = base.getThisUpdate();
+        Date nextUpdate = base.getNextUpdate();
+
+        if (delta != null) {
+            // RFC 5280 5.2.4: removeFromCRL in a delta CRL releases a hold
+            Set<? extends X509CRLEntry> entries = delta.getRevokedCertificates();
+            if (entries != null) {
+                for (X509CRLEntry entry : entries) {
+                    if (entry.getRevocationReason() == CRLReason.REMOVE_FROM_CRL) {
+                        revoked.remove(entry.getSerialNumber());
+                    } else {
+                        revoked.add(entry.getSerialNumber());
+                    }
+                }
+            }
+
+            thisUpdate = delta.getThisUpdate();
+            if (delta.getNextUpdate() != null
+                    && (nextUpdate == null || delta.getNextUpdate().before(nextUpdate))) {
+                nextUpdate = delta.getNextUpdate();
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(revoked.size());
+        int maxLength = 1;
+
+        for (BigInteger serial : revoked) {
+            byte[] bytes = serial.toByteArray();
+            encoded.add(bytes);
+            maxLength = Math.max(maxLength, bytes.length);
+        }
+
+        int width = maxLength;
+
+        ByteBuffer serials = ByteBuffer.allocate(encoded.size() * width);
+        byte[][] records = new byte[encoded.size()][];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = toRecord(encoded.get(i), width);
+        }
+
+        Arrays.sort(records, (a, b) -> compare(a, b, width));
+
+        for (byte[] record : records) {
+            serials.put(record);
+        }
+        serials.flip();
+
+        return new CRLIndex(
+                base.getIssuerX500Principal(),
+                issuerKey,
+                thisUpdate,
+                nextUpdate,
+                getCRLNumber(base),
+                delta == null ? null : getCRLNumber(delta),
+                width,
+                records.length,
+                serials.asReadOnlyBuffer());
+    }
+
+    static void addRevoked(Set<BigInteger> revoked, X509CRL crl) {
+
+        Set<? extends X509CRLEntry> entries = crl.getRevokedCertificates();
+        if (entries == null) {
+            return;
+        }
+
+        for (X509CRLEntry entry : entries) {
+            if (entry.getRevocationReason() != CRLReason.REMOVE_FROM_CRL) {
+                revoked.add(entry.getSerialNumber());
+            }
+        }
+    }
+
+    static BigInteger getCRLNumber(X509CRL crl) throws IOException {
+        return getIntegerExtension(crl, CRL_NUMBER_OID);
+    }
+
+    /**
+     * Returns the number of the base CRL a delta CRL applies to, or null
+     * if the CRL is not a delta CRL.
+     */
+    static BigInteger getBaseCRLNumber(X509CRL crl) throws IOException {
+        return getIntegerExtension(crl, DELTA_CRL_INDICATOR_OID);
+    }
+
+    static BigInteger getIntegerExtension(X509CRL crl, String oid) throws IOException {
+
+        byte[] value = crl.getExtensionValue(oid);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            // the extension value is an OCTET STRING containing the INTEGER
+            OCTET_STRING extension = (OCTET_STRING) ASN1Util.decode(OCTET_STRING.getTemplate(), value);
+            return (INTEGER) ASN1Util.decode(INTEGER.getTemplate(), extension.toByteArray());
+
+        } catch (InvalidBERException e) {
+            throw new IOException("Invalid CRL extension " + oid + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sign-extends a two's complement serial number to the record width.
+     */
+    static byte[] toRecord(byte[] bytes, int width) {
+
+        byte[] record = new byte[width];
+        byte pad = bytes[0] < 0 ? (byte) 0xff : 0;
+
+        int offset = width - bytes.length;
+        Arrays.fill(record, 0, offset, pad);
+        System.arraycopy(bytes, 0, record, offset, bytes.length);
+
+        return record;
+    }
+
+    /**
+     * Compares two records in numeric order: the first byte is signed,
+     * the others are unsigned.
+     */
+    static int compare(byte[] a, byte[] b, int width) {
+
+        int c = Byte.compare(a[0], b[0]);
+        if (c != 0) {
+            return c;
+        }
+
+        return Arrays.compareUnsigned(a, 1, width, b, 1, width);
+    }
+
+    boolean isRevoked(BigInteger serial) {
+
+        byte[] bytes = serial.toByteArray();
+        if (bytes.length > width || count == 0) {
+            return false;
+        }
+
+        byte[] key = toRecord(bytes, width);
+        byte[] record = new byte[width];
+
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            serials.get(mid * width, record);
+
+            int c = compare(record, key, width);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    boolean isExpired(long now) {
+        return nextUpdate != null && nextUpdate.getTime() < now;
+    }
+}
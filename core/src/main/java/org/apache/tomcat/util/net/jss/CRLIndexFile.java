@@ -0,0 +1,195 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Prebuilt CRL index that is memory-mapped at startup instead of parsing
+ * the CRLs again.
+ *
+ * The file contains one record per issuer:
+ *
+ *   issuer name (DER), issuer public key, thisUpdate, nextUpdate,
+ *   CRL number, delta CRL number, serial width, serial count, serials
+ *
+ * Variable-length fields are preceded by their length, and times are
+ * milliseconds since epoch with 0 for none. The serial numbers are used
+ * in place from the mapped file.
+ *
+ * The file is written by tomcatjss from verified CRLs, so it must be
+ * protected like the NSS database.
+ */
+final class CRLIndexFile {
+
+    static final int MAGIC = 0x544a4352; // "TJCR"
+    static final int VERSION = 1;
+
+    private CRLIndexFile() {
+    }
+
+    static Map<X500Principal, CRLIndex> read(Path file) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        Map<X500Principal, CRLIndex> indexes = new HashMap<>();
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported CRL index file: " + file);
+            }
+
+            int issuers = buffer.getInt();
+
+            for (int i = 0; i < issuers; i++) {
+
+                X500Principal issuer = new X500Principal(getBytes(buffer));
+                byte[] issuerKey = getBytes(buffer);
+                Date thisUpdate = getDate(buffer);
+                Date nextUpdate = getDate(buffer);
+                BigInteger crlNumber = getInteger(buffer);
+                BigInteger deltaCRLNumber = getInteger(buffer);
+
+                int width = buffer.getInt();
+                int count = buffer.getInt();
+
+                if (width <= 0 || count < 0) {
+                    throw new IOException("Invalid CRL index file: " + file);
+                }
+
+                int length = Math.multiplyExact(width, count);
+                ByteBuffer serials = buffer.slice(buffer.position(), length).asReadOnlyBuffer();
+                buffer.position(buffer.position() + length);
+
+                indexes.put(issuer, new CRLIndex(
+                        issuer, issuerKey, thisUpdate, nextUpdate,
+                        crlNumber, deltaCRLNumber, width, count, serials));
+            }
+
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                | NegativeArraySizeException | ArithmeticException e) {
+            throw new IOException("Invalid CRL index file: " + file, e);
+        }
+
+        return indexes;
+    }
+
+    static void write(Path file, Collection<CRLIndex> indexes) throws IOException {
+
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(indexes.size());
+
+                byte[] record = null;
+
+                for (CRLIndex index : indexes) {
+
+                    putBytes(out, index.issuer.getEncoded());
+                    putBytes(out, index.issuerKey);
+                    out.writeLong(index.thisUpdate == null ? 0 : index.thisUpdate.getTime());
+                    out.writeLong(index.nextUpdate == null ? 0 : index.nextUpdate.getTime());
+                    putBytes(out, index.crlNumber == null ? null : index.crlNumber.toByteArray());
+                    putBytes(out, index.deltaCRLNumber == null ? null : index.deltaCRLNumber.toByteArray());
+
+                    out.writeInt(index.width);
+                    out.writeInt(index.count);
+
+                    if (record == null || record.length != index.width) {
+                        record = new byte[index.width];
+                    }
+
+                    for (int i = 0; i < index.count; i++) {
+                        index.serials.get(i * index.width, record);
+                        out.write(record);
+                    }
+                }
+            }
+
+            // a mapping of the old file stays valid after the rename
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // The rename changes the modification time of the directory.
+            // If the file is in the CRL directory, that would make the
+            // directory look newer than the index (see CRLChecker), so
+            // the file is marked as modified after the rename.
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static Date getDate(ByteBuffer buffer) {
+        long time = buffer.getLong();
+        return time == 0 ? null : new Date(time);
+    }
+
+    static BigInteger getInteger(ByteBuffer buffer) {
+        byte[] bytes = getBytes(buffer);
+        return bytes.length == 0 ? null : new BigInteger(bytes);
+    }
+
+    static void putBytes(DataOutputStream out, byte[] bytes) throws IOException {
+
+        if (bytes == null) {
+            out.writeInt(0);
+            return;
+        }
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
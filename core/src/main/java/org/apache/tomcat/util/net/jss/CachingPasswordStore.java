@@ -0,0 +1,191 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the passwords of another IAsyncPasswordStore in memory for a
+ * limited time and clears them when they expire.
+ *
+ * Concurrent requests for the same tag share one request to the
+ * underlying store, so passwords fetched ahead of the token login are
+ * not fetched again. Failures are not cached, and a request after an
+ * incorrect password (iteration > 0) drops the cached password.
+ */
+public class CachingPasswordStore implements IAsyncPasswordStore {
+
+    static final class Entry {
+
+        private char[] password;
+
+        Entry(char[] password) {
+            this.password = password;
+        }
+
+        /**
+         * Returns a copy of the password, or null if it has been cleared.
+         */
+        synchronized char[] copy() {
+            return password == null ? null : password.clone();
+        }
+
+        synchronized void clear() {
+            if (password != null) {
+                Arrays.fill(password, '\0');
+                password = null;
+            }
+        }
+    }
+
+    private final IAsyncPasswordStore delegate;
+    private final int timeout; // seconds
+
+    // tag -> cached password, null value if the store has no password
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param timeout seconds a password is kept in memory
+     */
+    public CachingPasswordStore(IAsyncPasswordStore delegate, int timeout) {
+
+        this.delegate = delegate;
+        this.timeout = timeout;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TomcatJSS-PasswordCache");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public IAsyncPasswordStore getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public CompletableFuture<Void> init(String pwdPath) {
+        return delegate.init(pwdPath);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public CompletableFuture<char[]> getPassword(String tag, int iteration) {
+
+        if (iteration > 0) {
+            // the cached password was incorrect
+            remove(tag);
+            return delegate.getPassword(tag, iteration);
+        }
+
+        CompletableFuture<Entry> future = entries.get(tag);
+
+        if (future == null) {
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            future = entries.putIfAbsent(tag, created);
+            if (future == null) {
+                future = created;
+                fetch(tag, created);
+            }
+        }
+
+        return future.thenCompose(entry -> {
+            if (entry == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            char[] password = entry.copy();
+            // expired after this request found it
+            return password == null ? delegate.getPassword(tag, 0) : CompletableFuture.completedFuture(password);
+        });
+    }
+
+    void fetch(String tag, CompletableFuture<Entry> future) {
+
+        CompletableFuture<char[]> request;
+        try {
+            request = delegate.getPassword(tag, 0);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+
+        request.whenComplete((password, e) -> {
+
+            if (e != null) {
+                entries.remove(tag, future);
+                future.completeExceptionally(e);
+                return;
+            }
+
+            if (password == null) {
+                entries.remove(tag, future);
+                future.complete(null);
+                return;
+            }
+
+            Entry entry = new Entry(password);
+            future.complete(entry);
+
+            scheduler.schedule(() -> {
+                entries.remove(tag, future);
+                entry.clear();
+            }, timeout, TimeUnit.SECONDS);
+        });
+    }
+
+    void remove(String tag) {
+        CompletableFuture<Entry> future = entries.remove(tag);
+        if (future != null) {
+            future.thenAccept(entry -> {
+                if (entry != null) {
+                    entry.clear();
+                }
+            });
+        }
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+
+        scheduler.shutdownNow();
+
+        for (String tag : entries.keySet()) {
+            remove(tag);
+        }
+
+        delegate.close();
+    }
+}
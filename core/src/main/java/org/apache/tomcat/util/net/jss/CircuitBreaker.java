@@ -0,0 +1,113 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker for a remote service such as an OCSP responder.
+ *
+ * After a number of consecutive failures the circuit opens and requests
+ * are refused without contacting the service. Once the retry interval
+ * has passed a single trial request is let through; if it succeeds the
+ * circuit closes again, otherwise it stays open for another interval.
+ */
+public class CircuitBreaker {
+
+    public static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long retryInterval; // milliseconds
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    /**
+     * @param failureThreshold consecutive failures that open the circuit
+     * @param retryInterval seconds before a trial request is allowed
+     */
+    public CircuitBreaker(String name, int failureThreshold, int retryInterval) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.retryInterval = retryInterval * 1000L;
+    }
+
+    /**
+     * Returns true if a request may be sent to the service.
+     */
+    public synchronized boolean allowRequest() {
+
+        switch (state) {
+        case CLOSED:
+            return true;
+
+        case OPEN:
+            if (System.currentTimeMillis() - openedAt < retryInterval) {
+                return false;
+            }
+            logger.info("CircuitBreaker: retrying {}", name);
+            state = State.HALF_OPEN;
+            return true;
+
+        default:
+            // a trial request is already in progress
+            return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+
+        if (state != State.CLOSED) {
+            logger.info("CircuitBreaker: {} is available again", name);
+        }
+
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void recordFailure() {
+
+        failures++;
+
+        if (state == State.HALF_OPEN || failureThreshold > 0 && failures >= failureThreshold) {
+            if (state != State.OPEN) {
+                logger.warn("CircuitBreaker: {} failed {} time(s), not using it for {} seconds",
+                        name, failures, retryInterval / 1000);
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
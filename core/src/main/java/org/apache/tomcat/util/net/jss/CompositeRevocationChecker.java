@@ -0,0 +1,61 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Revocation check that requires a certificate to pass several checks,
+ * in the order given.
+ */
+public class CompositeRevocationChecker implements RevocationChecker {
+
+    private final List<RevocationChecker> checkers;
+
+    public CompositeRevocationChecker(RevocationChecker... checkers) {
+        this.checkers = Arrays.asList(checkers);
+    }
+
+    @Override
+    public void check(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+        for (RevocationChecker checker : checkers) {
+            checker.check(cert, issuer);
+        }
+    }
+
+    @Override
+    public long getExpirationTime(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+
+        long expirationTime = Long.MAX_VALUE;
+
+        for (RevocationChecker checker : checkers) {
+            expirationTime = Math.min(expirationTime, checker.getExpirationTime(cert, issuer));
+        }
+
+        return expirationTime;
+    }
+
+    public List<RevocationChecker> getCheckers() {
+        return checkers;
+    }
+}
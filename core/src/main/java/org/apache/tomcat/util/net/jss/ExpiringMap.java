@@ -0,0 +1,177 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Map of cache entries that expire at a given time, bounded by a
+ * maximum number of entries.
+ *
+ * Lookups do not lock. The entries are also indexed by expiration time,
+ * so when the map is full a put removes the expired entries, or the
+ * entry that expires first if none has expired, without scanning the
+ * whole map.
+ */
+class ExpiringMap<V> {
+
+    static final class Node<V> {
+
+        final String key;
+        final V value;
+        final long expires; // milliseconds since epoch
+        final long sequence; // orders entries that expire at the same time
+
+        Node(String key, V value, long expires, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.expires = expires;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Map<String, Node<V>> entries = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private final NavigableSet<Node<V>> expirations = new TreeSet<>(
+            Comparator.<Node<V>>comparingLong(node -> node.expires).thenComparingLong(node -> node.sequence));
+    private long sequence;
+
+    private volatile int maxSize;
+
+    // called for the entries the map removes by itself, may be null
+    private final BiConsumer<String, V> removalListener;
+
+    /**
+     * @param maxSize maximum number of entries, 0 for unlimited
+     * @param removalListener called with the entries that are removed
+     *        because they expired or to make room for new ones, or null
+     */
+    ExpiringMap(int maxSize, BiConsumer<String, V> removalListener) {
+        this.maxSize = maxSize;
+        this.removalListener = removalListener;
+    }
+
+    /**
+     * Changes the maximum number of entries. The map does not shrink
+     * until the next put.
+     */
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value, or null if there is none or it has expired,
+     * in which case it is removed.
+     */
+    V get(String key, long now) {
+
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        if (node.expires <= now) {
+            expire(node);
+            return null;
+        }
+
+        return node.value;
+    }
+
+    synchronized void put(String key, V value, long expires, long now) {
+
+        Node<V> previous = entries.get(key);
+
+        if (previous == null && maxSize > 0 && entries.size() >= maxSize) {
+            evict(now);
+        }
+
+        Node<V> node = new Node<>(key, value, expires, sequence++);
+        entries.put(key, node);
+
+        if (previous != null) {
+            expirations.remove(previous);
+        }
+        expirations.add(node);
+    }
+
+    /**
+     * Removes the entry and returns its value, or null if there is none.
+     */
+    synchronized V remove(String key) {
+
+        Node<V> node = entries.remove(key);
+        if (node == null) {
+            return null;
+        }
+
+        expirations.remove(node);
+        return node.value;
+    }
+
+    private synchronized void expire(Node<V> node) {
+
+        if (!entries.remove(node.key, node)) {
+            return;
+        }
+
+        expirations.remove(node);
+
+        if (removalListener != null) {
+            removalListener.accept(node.key, node.value);
+        }
+    }
+
+    /**
+     * Removes the expired entries, or the entry that expires first
+     * if none has expired.
+     */
+    private void evict(long now) {
+
+        boolean removed = false;
+
+        while (!expirations.isEmpty() && (expirations.first().expires <= now || !removed)) {
+
+            Node<V> node = expirations.pollFirst();
+            entries.remove(node.key, node);
+            removed = true;
+
+            if (removalListener != null) {
+                removalListener.accept(node.key, node.value);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        expirations.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,51 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Password store that returns the token passwords asynchronously, so
+ * that they can be fetched (e.g. from a local secrets agent) while NSS
+ * is being initialized.
+ *
+ * Passwords are returned as new char arrays which the caller owns and
+ * must clear after use.
+ */
+public interface IAsyncPasswordStore {
+
+    /**
+     * @param pwdPath the password file, socket, or other location
+     *        configured in passwordFile
+     */
+    public CompletableFuture<Void> init(String pwdPath);
+
+    public CompletableFuture<List<String>> getTags();
+
+    /**
+     * Returns the password for the tag, or null if there is none.
+     *
+     * @param iteration number of incorrect passwords already tried
+     */
+    public CompletableFuture<char[]> getPassword(String tag, int iteration);
+
+    public void close();
+}
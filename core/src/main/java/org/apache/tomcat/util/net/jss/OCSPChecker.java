@@ -0,0 +1,304 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.cert.CRLReason;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.CertificateRevokedException;
+import java.security.cert.PKIXParameters;
+import java.security.cert.PKIXRevocationChecker;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+
+import org.mozilla.jss.pkix.ocsp.CertID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OCSP revocation check backed by an OCSPResponseCache.
+ *
+ * Responses are fetched with OCSPClient and verified with the JDK PKIX
+ * revocation checker, which checks the responder signature (issuer or
+ * delegated responder) and the response validity period.
+ */
+public class OCSPChecker implements RevocationChecker {
+
+    public static final Logger logger = LoggerFactory.getLogger(OCSPChecker.class);
+
+    private final OCSPClient client;
+    private final OCSPResponseCache cache;
+
+    private volatile String responderURL;
+    private volatile X509Certificate responderCert;
+
+    /**
+     * @param responderURL responder for all certificates, or null to use
+     *        the responder in the certificate
+     * @param responderCert certificate that signs the responses of
+     *        responderURL, or null
+     */
+    public OCSPChecker(
+            OCSPClient client,
+            OCSPResponseCache cache,
+            String responderURL,
+            X509Certificate responderCert) {
+
+        this.client = client;
+        this.cache = cache;
+        this.responderURL = responderURL;
+        this.responderCert = responderCert;
+    }
+
+    public OCSPClient getClient() {
+        return client;
+    }
+
+    public OCSPResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Changes the responder for the checks started after this call.
+     * A check in progress may still fetch from the previous responder,
+     * in which case its response may fail verification once.
+     */
+    public void setResponder(String responderURL, X509Certificate responderCert) {
+        this.responderCert = responderCert;
+        this.responderURL = responderURL;
+    }
+
+    @Override
+    public void check(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+
+        String key = getKey(cert, issuer);
+
+        OCSPResponseInfo response = getCachedResponse(key, cert, issuer);
+
+        if (response == null) {
+            response = fetch(getResponderURL(cert), cert, issuer);
+            cache.put(key, response);
+        }
+
+        checkStatus(cert, issuer, response);
+    }
+
+    @Override
+    public long getExpirationTime(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+        OCSPResponseCache.Entry entry = cache.getEntry(getKey(cert, issuer));
+        // no cached response (e.g. soft-fail): the result must not be reused
+        return entry == null ? 0 : entry.expires;
+    }
+
+    String getKey(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+        return OCSPResponseCache.getKey(getCertID(cert, issuer));
+    }
+
+    CertID getCertID(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+        try {
+            return OCSPClient.createCertID(cert, issuer);
+        } catch (IOException e) {
+            throw new CertificateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the cached response for the certificate, or null if there
+     * is no valid response in the cache.
+     *
+     * A response loaded from disk that fails verification (e.g. signed by
+     * a responder certificate that has been replaced since) is removed so
+     * that a current response is fetched instead.
+     *
+     * @throws CertificateRevokedException if the JDK finds the certificate
+     *         revoked in a response that does not show it as revoked
+     */
+    OCSPResponseInfo getCachedResponse(String key, X509Certificate cert, X509Certificate issuer)
+            throws CertificateRevokedException {
+
+        OCSPResponseCache.Entry entry = cache.getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (!entry.verified) {
+            try {
+                verify(cert, issuer, entry.response);
+            } catch (CertificateRevokedException e) {
+                cache.remove(key);
+                throw e;
+            } catch (CertificateException e) {
+                logger.info("OCSPChecker: removing cached response for {}: {}",
+                        cert.getSubjectX500Principal(), e.getMessage());
+                cache.remove(key);
+                return null;
+            }
+            entry.verified = true;
+        }
+
+        return entry.response;
+    }
+
+    String getResponderURL(X509Certificate cert) throws CertificateException {
+
+        String url = responderURL;
+
+        if (url == null) {
+            try {
+                url = OCSPClient.getResponderURL(cert);
+            } catch (IOException e) {
+                throw new CertificateException(e.getMessage(), e);
+            }
+        }
+
+        if (url == null) {
+            throw new CertificateException("No OCSP responder for " + cert.getSubjectX500Principal());
+        }
+
+        return url;
+    }
+
+    /**
+     * Fetches and verifies the current response for the certificate.
+     *
+     * @throws OCSPUnavailableException if the responder cannot be reached
+     */
+    OCSPResponseInfo fetch(String url, X509Certificate cert, X509Certificate issuer) throws CertificateException {
+
+        CertID certID = getCertID(cert, issuer);
+
+        byte[] encoded;
+        try {
+            byte[] request = OCSPClient.createRequest(certID);
+            encoded = client.submit(url, request);
+
+        } catch (IOException e) {
+            throw new OCSPUnavailableException("Unable to check OCSP status of "
+                    + cert.getSubjectX500Principal() + ": " + e.getMessage(), e);
+        }
+
+        try {
+            OCSPResponseInfo response = OCSPResponseInfo.parse(encoded, certID);
+            verify(cert, issuer, response);
+
+            logger.debug("OCSPChecker: {} status: {}", cert.getSubjectX500Principal(), response.getStatus());
+            return response;
+
+        } catch (IOException e) {
+            throw new CertificateException("Invalid OCSP response for "
+                    + cert.getSubjectX500Principal() + ": " + e.getMessage(), e);
+        }
+    }
+
+    void verify(X509Certificate cert, X509Certificate issuer, OCSPResponseInfo response)
+            throws CertificateException {
+
+        try {
+            // use the JDK certificate implementation for the JDK validator
+            CertificateFactory cf = CertificateFactory.getInstance("X.509", "SUN");
+            X509Certificate leaf = toJDK(cf, cert);
+
+            CertPath path = cf.generateCertPath(Collections.singletonList(leaf));
+            CertPathValidator validator = CertPathValidator.getInstance("PKIX", "SUN");
+
+            PKIXRevocationChecker revocationChecker = (PKIXRevocationChecker) validator.getRevocationChecker();
+            revocationChecker.setOptions(EnumSet.of(
+                    PKIXRevocationChecker.Option.ONLY_END_ENTITY,
+                    PKIXRevocationChecker.Option.NO_FALLBACK));
+            revocationChecker.setOcspResponses(Collections.singletonMap(leaf, response.getEncoded()));
+
+            if (responderCert != null) {
+                revocationChecker.setOcspResponderCert(toJDK(cf, responderCert));
+            }
+
+            // The chain has already been validated by the wrapped trust
+            // manager (the JSS Java trust manager with the JSS engine, not
+            // the native NSS verification). The JDK validator also checks
+            // the leaf again (e.g. critical extensions and key usage), so
+            // it can reject a certificate that the trust manager accepted.
+            PKIXParameters params = new PKIXParameters(
+                    Collections.singleton(new TrustAnchor(toJDK(cf, issuer), null)));
+            params.addCertPathChecker(revocationChecker);
+
+            validator.validate(path, params);
+
+        } catch (CertPathValidatorException e) {
+            if (e.getReason() == CertPathValidatorException.BasicReason.REVOKED) {
+                if (response.getStatus() == OCSPResponseInfo.Status.REVOKED) {
+                    // the response is valid, the status is checked separately
+                    return;
+                }
+                // the JDK found a revoked status that the parsed response
+                // does not show, so the certificate is treated as revoked
+                throw revoked(issuer, e);
+            }
+            throw new CertificateException("Invalid OCSP response for "
+                    + cert.getSubjectX500Principal() + ": " + e.getMessage(), e);
+
+        } catch (GeneralSecurityException e) {
+            throw new CertificateException("Unable to verify OCSP response: " + e.getMessage(), e);
+        }
+    }
+
+    static CertificateRevokedException revoked(X509Certificate issuer, CertPathValidatorException e) {
+
+        if (e.getCause() instanceof CertificateRevokedException) {
+            return (CertificateRevokedException) e.getCause();
+        }
+
+        return new CertificateRevokedException(
+                new Date(),
+                CRLReason.UNSPECIFIED,
+                issuer.getSubjectX500Principal(),
+                Collections.emptyMap());
+    }
+
+    static X509Certificate toJDK(CertificateFactory cf, X509Certificate cert) throws CertificateException {
+        return (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(cert.getEncoded()));
+    }
+
+    void checkStatus(X509Certificate cert, X509Certificate issuer, OCSPResponseInfo response)
+            throws CertificateException {
+
+        switch (response.getStatus()) {
+        case GOOD:
+            return;
+
+        case REVOKED:
+            throw new CertificateRevokedException(
+                    response.getRevocationTime(),
+                    CRLReason.UNSPECIFIED,
+                    issuer.getSubjectX500Principal(),
+                    Collections.emptyMap());
+
+        default:
+            throw new CertificateException("Unknown OCSP status for " + cert.getSubjectX500Principal());
+        }
+    }
+}
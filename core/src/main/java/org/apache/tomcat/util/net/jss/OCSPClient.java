@@ -0,0 +1,230 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+
+import org.mozilla.jss.asn1.ANY;
+import org.mozilla.jss.asn1.ASN1Util;
+import org.mozilla.jss.asn1.IA5String;
+import org.mozilla.jss.asn1.INTEGER;
+import org.mozilla.jss.asn1.InvalidBERException;
+import org.mozilla.jss.asn1.NULL;
+import org.mozilla.jss.asn1.OBJECT_IDENTIFIER;
+import org.mozilla.jss.asn1.OCTET_STRING;
+import org.mozilla.jss.asn1.SEQUENCE;
+import org.mozilla.jss.asn1.Tag;
+import org.mozilla.jss.pkix.ocsp.CertID;
+import org.mozilla.jss.pkix.ocsp.OCSPRequest;
+import org.mozilla.jss.pkix.ocsp.Request;
+import org.mozilla.jss.pkix.ocsp.TBSRequest;
+import org.mozilla.jss.pkix.primitive.AlgorithmIdentifier;
+import org.mozilla.jss.pkix.primitive.SubjectPublicKeyInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal OCSP client (RFC 6960) that sends unsigned requests for
+ * a single certificate over HTTP POST.
+ *
+ * The requests are encoded with the JSS OCSP classes.
+ */
+public class OCSPClient {
+
+    public static final Logger logger = LoggerFactory.getLogger(OCSPClient.class);
+
+    // responses are small, anything larger is not an OCSP response
+    static final int MAX_RESPONSE_SIZE = 64 * 1024;
+
+    // SHA-1, the hash algorithm of CertID that all responders support
+    static final OBJECT_IDENTIFIER SHA1_OID = new OBJECT_IDENTIFIER("1.3.14.3.2.26");
+
+    // id-pe-authorityInfoAccess
+    static final String AIA_OID = "1.3.6.1.5.5.7.1.1";
+
+    // id-ad-ocsp
+    static final OBJECT_IDENTIFIER OCSP_ACCESS_METHOD = new OBJECT_IDENTIFIER("1.3.6.1.5.5.7.48.1");
+
+    // uniformResourceIdentifier [6] IA5String
+    static final Tag URI_TAG = new Tag(6);
+
+    private volatile int timeout; // seconds
+
+    public OCSPClient(int timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Changes the timeout of the requests submitted after this call.
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the SHA-1 hash of the issuer public key as used in CertID.
+     */
+    public static byte[] getIssuerKeyHash(X509Certificate issuer) throws IOException {
+
+        try {
+            SubjectPublicKeyInfo spki = (SubjectPublicKeyInfo) ASN1Util.decode(
+                    SubjectPublicKeyInfo.getTemplate(),
+                    issuer.getPublicKey().getEncoded());
+
+            return sha1(spki.getSubjectPublicKey().getBits());
+
+        } catch (InvalidBERException e) {
+            throw new IOException("Invalid issuer public key: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the CertID that identifies the certificate in OCSP
+     * requests and responses.
+     */
+    public static CertID createCertID(X509Certificate cert, X509Certificate issuer) throws IOException {
+        return createCertID(
+                sha1(issuer.getSubjectX500Principal().getEncoded()),
+                getIssuerKeyHash(issuer),
+                cert.getSerialNumber());
+    }
+
+    public static CertID createCertID(byte[] issuerNameHash, byte[] issuerKeyHash, BigInteger serialNumber) {
+        return new CertID(
+                new AlgorithmIdentifier(SHA1_OID, new NULL()),
+                new OCTET_STRING(issuerNameHash),
+                new OCTET_STRING(issuerKeyHash),
+                new INTEGER(serialNumber.toByteArray()));
+    }
+
+    public static byte[] createRequest(CertID certID) {
+
+        SEQUENCE requestList = new SEQUENCE();
+        requestList.addElement(new Request(certID, null));
+
+        // unsigned request without requestor name or extensions
+        TBSRequest tbsRequest = new TBSRequest(null, null, requestList, null);
+
+        return ASN1Util.encode(new OCSPRequest(tbsRequest, null));
+    }
+
+    /**
+     * Returns the OCSP responder URL from the authority information access
+     * extension of the certificate, or null if there is none.
+     */
+    public static String getResponderURL(X509Certificate cert) throws IOException {
+
+        byte[] value = cert.getExtensionValue(AIA_OID);
+        if (value == null) {
+            return null;
+        }
+
+        // AccessDescription ::= SEQUENCE { accessMethod, accessLocation }
+        SEQUENCE.Template accessDescription = new SEQUENCE.Template();
+        accessDescription.addElement(OBJECT_IDENTIFIER.getTemplate());
+        accessDescription.addElement(ANY.getTemplate());
+
+        try {
+            // the extension value is an OCTET STRING containing
+            // AuthorityInfoAccessSyntax ::= SEQUENCE OF AccessDescription
+            OCTET_STRING extension = (OCTET_STRING) ASN1Util.decode(OCTET_STRING.getTemplate(), value);
+            SEQUENCE aia = (SEQUENCE) ASN1Util.decode(
+                    new SEQUENCE.OF_Template(accessDescription),
+                    extension.toByteArray());
+
+            for (int i = 0; i < aia.size(); i++) {
+
+                SEQUENCE description = (SEQUENCE) aia.elementAt(i);
+                if (!OCSP_ACCESS_METHOD.equals(description.elementAt(0))) {
+                    continue;
+                }
+
+                ANY location = (ANY) description.elementAt(1);
+                if (URI_TAG.equals(location.getTag())) {
+                    return location.decodeWith(URI_TAG, IA5String.getTemplate()).toString();
+                }
+            }
+
+        } catch (InvalidBERException | ClassCastException e) {
+            throw new IOException("Invalid authority information access extension: " + e.getMessage(), e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Sends the request to the responder and returns the raw response.
+     */
+    public byte[] submit(String url, byte[] request) throws IOException {
+
+        logger.debug("OCSPClient: sending request to {}", url);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(timeout * 1000);
+        connection.setReadTimeout(timeout * 1000);
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/ocsp-request");
+        connection.setRequestProperty("Accept", "application/ocsp-response");
+        connection.setFixedLengthStreamingMode(request.length);
+
+        try {
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request);
+            }
+
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("OCSP responder " + url + " returned HTTP " + code);
+            }
+
+            try (InputStream in = connection.getInputStream()) {
+                byte[] response = in.readNBytes(MAX_RESPONSE_SIZE + 1);
+                if (response.length > MAX_RESPONSE_SIZE) {
+                    throw new IOException("OCSP response from " + url + " is too large");
+                }
+                return response;
+            }
+
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    static byte[] sha1(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import javax.naming.ConfigurationException;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * OCSP settings that can be changed while the server is running.
+ *
+ * A new instance is created for each change so that handshakes never
+ * see a partially applied configuration.
+ */
+public final class OCSPConfig {
+
+    private final String responderURL;
+    private final String responderCertNickname;
+    private final int cacheSize; // entries
+    private final int minCacheEntryDuration; // seconds
+    private final int maxCacheEntryDuration; // seconds
+    private final int timeout; // seconds
+
+    /**
+     * @param responderURL responder for all certificates, or null to use
+     *        the responder in the certificate
+     * @param responderCertNickname nickname of the certificate that signs
+     *        the responses of responderURL, or null
+     */
+    public OCSPConfig(
+            String responderURL,
+            String responderCertNickname,
+            int cacheSize,
+            int minCacheEntryDuration,
+            int maxCacheEntryDuration,
+            int timeout) {
+
+        this.responderURL = StringUtils.isEmpty(responderURL) ? null : responderURL;
+        this.responderCertNickname = StringUtils.isEmpty(responderCertNickname) ? null : responderCertNickname;
+        this.cacheSize = cacheSize;
+        this.minCacheEntryDuration = minCacheEntryDuration;
+        this.maxCacheEntryDuration = maxCacheEntryDuration;
+        this.timeout = timeout;
+    }
+
+    public String getResponderURL() {
+        return responderURL;
+    }
+
+    public String getResponderCertNickname() {
+        return responderCertNickname;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public int getMinCacheEntryDuration() {
+        return minCacheEntryDuration;
+    }
+
+    public int getMaxCacheEntryDuration() {
+        return maxCacheEntryDuration;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public void validate() throws ConfigurationException {
+
+        if (responderURL == null && responderCertNickname != null) {
+            throw new ConfigurationException("Missing OCSP responder URL");
+        }
+
+        if (responderURL != null && responderCertNickname == null) {
+            throw new ConfigurationException("Missing OCSP responder certificate nickname");
+        }
+
+        // NSS uses -1 to disable the cache and 0 for no limit
+        if (cacheSize < -1) {
+            throw new ConfigurationException("Invalid OCSP cache size: " + cacheSize);
+        }
+
+        if (minCacheEntryDuration < 0) {
+            throw new ConfigurationException("Invalid OCSP minimum cache entry duration: " + minCacheEntryDuration);
+        }
+
+        if (maxCacheEntryDuration < minCacheEntryDuration) {
+            throw new ConfigurationException("OCSP maximum cache entry duration " + maxCacheEntryDuration
+                    + " is less than the minimum " + minCacheEntryDuration);
+        }
+
+        if (timeout <= 0) {
+            throw new ConfigurationException("Invalid OCSP timeout: " + timeout);
+        }
+    }
+
+    public boolean hasSameResponder(OCSPConfig config) {
+        return StringUtils.equals(responderURL, config.responderURL)
+                && StringUtils.equals(responderCertNickname, config.responderCertNickname);
+    }
+
+    @Override
+    public String toString() {
+        return "responderURL=" + responderURL
+                + ", responderCertNickname=" + responderCertNickname
+                + ", cacheSize=" + cacheSize
+                + ", minCacheEntryDuration=" + minCacheEntryDuration
+                + ", maxCacheEntryDuration=" + maxCacheEntryDuration
+                + ", timeout=" + timeout;
+    }
+}
@@ -0,0 +1,190 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.lang.management.ManagementFactory;
+import java.security.GeneralSecurityException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.naming.ConfigurationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Changes the OCSP settings of a running server through JMX.
+ *
+ * Each change creates a new OCSPConfig from the current one, so
+ * concurrent changes of different settings do not overwrite each
+ * other with stale values.
+ */
+public class OCSPManager implements OCSPManagerMXBean {
+
+    public static final Logger logger = LoggerFactory.getLogger(OCSPManager.class);
+
+    public static final String OBJECT_NAME = "org.dogtagpki.tomcatjss:type=OCSP";
+
+    private final TomcatJSS tomcatjss;
+
+    private ObjectName objectName;
+
+    public OCSPManager(TomcatJSS tomcatjss) {
+        this.tomcatjss = tomcatjss;
+    }
+
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        objectName = new ObjectName(OBJECT_NAME);
+        server.registerMBean(this, objectName);
+        logger.debug("OCSPManager: registered {}", objectName);
+    }
+
+    public void unregister() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(objectName);
+        objectName = null;
+    }
+
+    @Override
+    public String getResponderURL() {
+        return tomcatjss.getOCSPConfig().getResponderURL();
+    }
+
+    @Override
+    public String getResponderCertNickname() {
+        return tomcatjss.getOCSPConfig().getResponderCertNickname();
+    }
+
+    @Override
+    public int getCacheSize() {
+        return tomcatjss.getOCSPConfig().getCacheSize();
+    }
+
+    @Override
+    public void setCacheSize(int cacheSize) {
+        synchronized (tomcatjss) {
+            OCSPConfig config = tomcatjss.getOCSPConfig();
+            apply(new OCSPConfig(
+                    config.getResponderURL(),
+                    config.getResponderCertNickname(),
+                    cacheSize,
+                    config.getMinCacheEntryDuration(),
+                    config.getMaxCacheEntryDuration(),
+                    config.getTimeout()));
+        }
+    }
+
+    @Override
+    public int getMinCacheEntryDuration() {
+        return tomcatjss.getOCSPConfig().getMinCacheEntryDuration();
+    }
+
+    @Override
+    public void setMinCacheEntryDuration(int minCacheEntryDuration) {
+        synchronized (tomcatjss) {
+            OCSPConfig config = tomcatjss.getOCSPConfig();
+            apply(new OCSPConfig(
+                    config.getResponderURL(),
+                    config.getResponderCertNickname(),
+                    config.getCacheSize(),
+                    minCacheEntryDuration,
+                    config.getMaxCacheEntryDuration(),
+                    config.getTimeout()));
+        }
+    }
+
+    @Override
+    public int getMaxCacheEntryDuration() {
+        return tomcatjss.getOCSPConfig().getMaxCacheEntryDuration();
+    }
+
+    @Override
+    public void setMaxCacheEntryDuration(int maxCacheEntryDuration) {
+        synchronized (tomcatjss) {
+            OCSPConfig config = tomcatjss.getOCSPConfig();
+            apply(new OCSPConfig(
+                    config.getResponderURL(),
+                    config.getResponderCertNickname(),
+                    config.getCacheSize(),
+                    config.getMinCacheEntryDuration(),
+                    maxCacheEntryDuration,
+                    config.getTimeout()));
+        }
+    }
+
+    @Override
+    public int getTimeout() {
+        return tomcatjss.getOCSPConfig().getTimeout();
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+        synchronized (tomcatjss) {
+            OCSPConfig config = tomcatjss.getOCSPConfig();
+            apply(new OCSPConfig(
+                    config.getResponderURL(),
+                    config.getResponderCertNickname(),
+                    config.getCacheSize(),
+                    config.getMinCacheEntryDuration(),
+                    config.getMaxCacheEntryDuration(),
+                    timeout));
+        }
+    }
+
+    @Override
+    public void reconfigure(
+            String responderURL,
+            String responderCertNickname,
+            int cacheSize,
+            int minCacheEntryDuration,
+            int maxCacheEntryDuration,
+            int timeout) {
+
+        apply(new OCSPConfig(
+                responderURL,
+                responderCertNickname,
+                cacheSize,
+                minCacheEntryDuration,
+                maxCacheEntryDuration,
+                timeout));
+    }
+
+    /**
+     * Applies the settings and reports errors with standard exceptions
+     * that JMX clients can deserialize.
+     */
+    void apply(OCSPConfig config) {
+        try {
+            tomcatjss.reconfigureOCSP(config);
+
+        } catch (ConfigurationException e) {
+            throw new IllegalArgumentException(e.getMessage());
+
+        } catch (GeneralSecurityException e) {
+            logger.error("OCSPManager: unable to reconfigure OCSP: {}", e.getMessage(), e);
+            throw new IllegalStateException("Unable to reconfigure OCSP: " + e.getMessage());
+        }
+    }
+}
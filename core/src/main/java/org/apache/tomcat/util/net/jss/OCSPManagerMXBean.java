@@ -0,0 +1,62 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+/**
+ * JMX view of the OCSP settings, which can be changed without
+ * restarting the server.
+ */
+public interface OCSPManagerMXBean {
+
+    public String getResponderURL();
+
+    public String getResponderCertNickname();
+
+    public int getCacheSize();
+
+    public void setCacheSize(int cacheSize);
+
+    public int getMinCacheEntryDuration();
+
+    public void setMinCacheEntryDuration(int minCacheEntryDuration);
+
+    public int getMaxCacheEntryDuration();
+
+    public void setMaxCacheEntryDuration(int maxCacheEntryDuration);
+
+    /**
+     * Returns the OCSP request timeout in seconds.
+     */
+    public int getTimeout();
+
+    public void setTimeout(int timeout);
+
+    /**
+     * Validates and applies all the OCSP settings at once. Empty
+     * responder values use the responder in each certificate.
+     */
+    public void reconfigure(
+            String responderURL,
+            String responderCertNickname,
+            int cacheSize,
+            int minCacheEntryDuration,
+            int maxCacheEntryDuration,
+            int timeout);
+}
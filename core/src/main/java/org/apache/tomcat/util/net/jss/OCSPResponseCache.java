@@ -0,0 +1,273 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.mozilla.jss.pkix.ocsp.CertID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OCSP response cache keyed by CertID (issuer name hash, issuer key hash
+ * and serial number).
+ *
+ * Each response is kept in memory and, if a directory is configured,
+ * written to its own file in that directory as soon as it is fetched.
+ * The files are written and deleted in order on a background thread so
+ * that the handshake threads do not wait for the disk.
+ * The directory is read again at startup so that revocation checks
+ * after a restart are answered from the cache until the responses
+ * expire.
+ *
+ * A response expires at its nextUpdate time but no later than the
+ * maximum cache entry duration after it was fetched. Responses without
+ * nextUpdate are kept for the minimum cache entry duration.
+ */
+public class OCSPResponseCache {
+
+    public static final Logger logger = LoggerFactory.getLogger(OCSPResponseCache.class);
+
+    static final String SUFFIX = ".ocsp";
+
+    // shared by all caches, the files are small
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "TomcatJSS-OCSPCache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static final class Entry {
+
+        final OCSPResponseInfo response;
+        final long fetched; // milliseconds since epoch
+        final long expires; // milliseconds since epoch
+
+        // responses loaded from disk are verified again on first use
+        volatile boolean verified;
+
+        Entry(OCSPResponseInfo response, long fetched, long expires, boolean verified) {
+            this.response = response;
+            this.fetched = fetched;
+            this.expires = expires;
+            this.verified = verified;
+        }
+    }
+
+    private final Path directory;
+    private volatile long minDuration; // milliseconds
+    private volatile long maxDuration; // milliseconds
+
+    // responses that expire or are evicted are also removed from disk
+    private final ExpiringMap<Entry> entries;
+
+    /**
+     * @param directory cache directory, or null to keep responses in memory only
+     * @param maxSize maximum number of entries, 0 for unlimited
+     * @param minDuration minimum cache entry duration in seconds
+     * @param maxDuration maximum cache entry duration in seconds
+     */
+    public OCSPResponseCache(Path directory, int maxSize, int minDuration, int maxDuration) {
+        this.directory = directory;
+        this.entries = new ExpiringMap<>(maxSize, (key, entry) -> delete(key));
+        this.minDuration = minDuration * 1000L;
+        this.maxDuration = maxDuration * 1000L;
+    }
+
+    /**
+     * Changes the cache limits. Cached responses keep their expiration
+     * time, and the cache does not grow while it is above a lower limit.
+     *
+     * @param maxSize maximum number of entries, 0 for unlimited
+     * @param minDuration minimum cache entry duration in seconds
+     * @param maxDuration maximum cache entry duration in seconds
+     */
+    public void setLimits(int maxSize, int minDuration, int maxDuration) {
+        entries.setMaxSize(maxSize);
+        this.minDuration = minDuration * 1000L;
+        this.maxDuration = maxDuration * 1000L;
+    }
+
+    /**
+     * Returns the cache key of a SHA-1 CertID, which is also the name
+     * of its file in the cache directory.
+     */
+    public static String getKey(CertID certID) {
+        HexFormat hex = HexFormat.of();
+        return hex.formatHex(certID.getIssuerNameHash().toByteArray())
+                + "-" + hex.formatHex(certID.getIssuerKeyHash().toByteArray())
+                + "-" + certID.getSerialNumber().toString(16);
+    }
+
+    /**
+     * Returns the CertID of a cache key.
+     */
+    static CertID getCertID(String key) {
+
+        String[] parts = key.split("-");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid OCSP cache key: " + key);
+        }
+
+        HexFormat hex = HexFormat.of();
+        return OCSPClient.createCertID(
+                hex.parseHex(parts[0]),
+                hex.parseHex(parts[1]),
+                new BigInteger(parts[2], 16));
+    }
+
+    /**
+     * Loads the responses stored in the cache directory. Expired or
+     * unreadable responses are deleted.
+     */
+    public void load() throws IOException {
+
+        if (directory == null) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+
+                String filename = file.getFileName().toString();
+                String key = filename.substring(0, filename.length() - SUFFIX.length());
+
+                try {
+                    CertID certID = getCertID(key);
+
+                    byte[] encoded = Files.readAllBytes(file);
+                    OCSPResponseInfo response = OCSPResponseInfo.parse(encoded, certID);
+
+                    long fetched = Files.getLastModifiedTime(file).toMillis();
+                    long expires = getExpirationTime(response, fetched);
+
+                    if (expires <= now) {
+                        Files.deleteIfExists(file);
+                        continue;
+                    }
+
+                    entries.put(key, new Entry(response, fetched, expires, false), expires, now);
+                    loaded++;
+
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("OCSPResponseCache: removing invalid response {}: {}", file, e.getMessage());
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        logger.info("OCSPResponseCache: loaded {} response(s) from {}", loaded, directory);
+    }
+
+    long getExpirationTime(OCSPResponseInfo response, long fetched) {
+
+        if (response.getNextUpdate() == null) {
+            return fetched + minDuration;
+        }
+
+        return Math.min(response.getNextUpdate().getTime(), fetched + maxDuration);
+    }
+
+    /**
+     * Returns the cache entry, or null if there is none or it has expired.
+     */
+    Entry getEntry(String key) {
+        return entries.get(key, System.currentTimeMillis());
+    }
+
+    public OCSPResponseInfo get(String key) {
+        Entry entry = getEntry(key);
+        return entry == null ? null : entry.response;
+    }
+
+    /**
+     * Stores a verified response and writes it to the cache directory
+     * in the background.
+     */
+    public void put(String key, OCSPResponseInfo response) {
+
+        long now = System.currentTimeMillis();
+        long expires = getExpirationTime(response, now);
+
+        if (expires <= now) {
+            return;
+        }
+
+        entries.put(key, new Entry(response, now, expires, true), expires, now);
+
+        if (directory == null) {
+            return;
+        }
+
+        writer.execute(() -> store(key, response));
+    }
+
+    private void store(String key, OCSPResponseInfo response) {
+
+        Path file = directory.resolve(key + SUFFIX);
+
+        try {
+            // write and rename so a crash never leaves a partial response
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(tmp, response.getEncoded());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            logger.warn("OCSPResponseCache: unable to store {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+        delete(key);
+    }
+
+    private void delete(String key) {
+
+        if (directory == null) {
+            return;
+        }
+
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(directory.resolve(key + SUFFIX));
+            } catch (IOException e) {
+                logger.warn("OCSPResponseCache: unable to remove {}: {}", key, e.getMessage(), e);
+            }
+        });
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,201 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.mozilla.jss.asn1.ASN1Util;
+import org.mozilla.jss.asn1.GeneralizedTime;
+import org.mozilla.jss.asn1.InvalidBERException;
+import org.mozilla.jss.pkix.ocsp.BasicOCSPResponse;
+import org.mozilla.jss.pkix.ocsp.CertID;
+import org.mozilla.jss.pkix.ocsp.CertStatus;
+import org.mozilla.jss.pkix.ocsp.GoodInfo;
+import org.mozilla.jss.pkix.ocsp.OCSPResponse;
+import org.mozilla.jss.pkix.ocsp.OCSPResponseStatus;
+import org.mozilla.jss.pkix.ocsp.ResponseBytes;
+import org.mozilla.jss.pkix.ocsp.ResponseData;
+import org.mozilla.jss.pkix.ocsp.RevokedInfo;
+import org.mozilla.jss.pkix.ocsp.SingleResponse;
+
+/**
+ * The status of a single certificate in a DER-encoded OCSP response.
+ *
+ * The response is decoded with the JSS OCSP classes. Parsing does not
+ * verify the response signature; OCSPChecker does that before the
+ * response is trusted.
+ */
+public class OCSPResponseInfo {
+
+    // ordered from the least to the most severe
+    public enum Status {
+        GOOD, UNKNOWN, REVOKED
+    }
+
+    private final byte[] encoded;
+    private final BigInteger serialNumber;
+    private final Status status;
+    private final Date thisUpdate;
+    private final Date nextUpdate;
+    private final Date revocationTime;
+
+    OCSPResponseInfo(
+            byte[] encoded,
+            BigInteger serialNumber,
+            Status status,
+            Date thisUpdate,
+            Date nextUpdate,
+            Date revocationTime) {
+
+        this.encoded = encoded;
+        this.serialNumber = serialNumber;
+        this.status = status;
+        this.thisUpdate = thisUpdate;
+        this.nextUpdate = nextUpdate;
+        this.revocationTime = revocationTime;
+    }
+
+    /**
+     * Parses an OCSP response and extracts the status of the certificate
+     * identified by the CertID.
+     *
+     * Only the responses for the same hash algorithm, issuer name hash,
+     * issuer key hash and serial number are used. If the response has
+     * more than one of them, the most severe status is returned.
+     */
+    public static OCSPResponseInfo parse(byte[] encoded, CertID certID) throws IOException {
+        try {
+            return parseResponse(encoded, certID);
+        } catch (InvalidBERException | ClassCastException e) {
+            throw new IOException("Invalid OCSP response: " + e.getMessage(), e);
+        }
+    }
+
+    private static OCSPResponseInfo parseResponse(byte[] encoded, CertID certID)
+            throws IOException, InvalidBERException {
+
+        OCSPResponse ocspResponse = (OCSPResponse) ASN1Util.decode(OCSPResponse.getTemplate(), encoded);
+
+        long responseStatus = ocspResponse.getResponseStatus().getValue();
+        if (responseStatus != OCSPResponseStatus.SUCCESSFUL.getValue()) {
+            throw new IOException("OCSP responder returned status " + responseStatus);
+        }
+
+        ResponseBytes responseBytes = ocspResponse.getResponseBytes();
+        if (responseBytes == null) {
+            throw new IOException("Missing OCSP response bytes");
+        }
+
+        if (!ResponseBytes.OCSP_BASIC.equals(responseBytes.getObjectIdentifier())) {
+            throw new IOException("Unsupported OCSP response type: " + responseBytes.getObjectIdentifier());
+        }
+
+        BasicOCSPResponse basicResponse = (BasicOCSPResponse) ASN1Util.decode(
+                BasicOCSPResponse.getTemplate(),
+                responseBytes.getResponse().toByteArray());
+
+        ResponseData responseData = basicResponse.getResponseData();
+        BigInteger serialNumber = certID.getSerialNumber();
+
+        OCSPResponseInfo result = null;
+
+        for (int i = 0; i < responseData.getResponseCount(); i++) {
+
+            SingleResponse singleResponse = responseData.getResponseAt(i);
+            if (!matches(certID, singleResponse.getCertID())) {
+                continue;
+            }
+
+            CertStatus certStatus = singleResponse.getCertStatus();
+
+            Status status;
+            Date revocationTime = null;
+
+            if (certStatus instanceof GoodInfo) {
+                status = Status.GOOD;
+
+            } else if (certStatus instanceof RevokedInfo) {
+                status = Status.REVOKED;
+                revocationTime = ((RevokedInfo) certStatus).getRevocationTime().toDate();
+
+            } else {
+                status = Status.UNKNOWN;
+            }
+
+            if (result != null && status.compareTo(result.status) <= 0) {
+                continue;
+            }
+
+            GeneralizedTime nextUpdate = singleResponse.getNextUpdate();
+
+            result = new OCSPResponseInfo(
+                    encoded,
+                    serialNumber,
+                    status,
+                    singleResponse.getThisUpdate().toDate(),
+                    nextUpdate == null ? null : nextUpdate.toDate(),
+                    revocationTime);
+        }
+
+        if (result == null) {
+            throw new IOException("OCSP response does not contain certificate 0x" + serialNumber.toString(16));
+        }
+
+        return result;
+    }
+
+    static boolean matches(CertID expected, CertID actual) {
+        return expected.getHashAlgorithm().getOID().equals(actual.getHashAlgorithm().getOID())
+                && Arrays.equals(expected.getIssuerNameHash().toByteArray(), actual.getIssuerNameHash().toByteArray())
+                && Arrays.equals(expected.getIssuerKeyHash().toByteArray(), actual.getIssuerKeyHash().toByteArray())
+                && expected.getSerialNumber().equals(actual.getSerialNumber());
+    }
+
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    public BigInteger getSerialNumber() {
+        return serialNumber;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Date getThisUpdate() {
+        return thisUpdate;
+    }
+
+    /**
+     * Returns the time newer information will be available, or null
+     * if the responder always has newer information.
+     */
+    public Date getNextUpdate() {
+        return nextUpdate;
+    }
+
+    public Date getRevocationTime() {
+        return revocationTime;
+    }
+}
@@ -0,0 +1,50 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+/**
+ * Revocation check of a client certificate done by tomcatjss instead of NSS.
+ */
+public interface RevocationChecker {
+
+    /**
+     * Checks the revocation status of a certificate.
+     *
+     * @param cert the certificate to check
+     * @param issuer the certificate of its issuer
+     * @throws java.security.cert.CertificateRevokedException if the certificate is revoked
+     * @throws CertificateException if the status cannot be determined
+     */
+    public void check(X509Certificate cert, X509Certificate issuer) throws CertificateException;
+
+    /**
+     * Returns the time (milliseconds since epoch) until which the revocation
+     * data used by the last check of the certificate stays current, so that
+     * the result can be cached until then.
+     *
+     * @return Long.MAX_VALUE if the data does not expire
+     */
+    public default long getExpirationTime(X509Certificate cert, X509Certificate issuer) throws CertificateException {
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,183 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.net.ssl.X509TrustManager;
+
+import org.mozilla.jss.CryptoManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Trust manager that checks the revocation status of client certificates
+ * with a RevocationChecker after the delegate has validated the chain.
+ */
+public class RevocationTrustManager implements X509TrustManager {
+
+    public static final Logger logger = LoggerFactory.getLogger(RevocationTrustManager.class);
+
+    static final int MAX_ISSUERS = 256;
+
+    // issuers found for previous chains, keyed by issuer name and
+    // authority key identifier
+    private static final Map<String, X509Certificate> issuers = Collections.synchronizedMap(
+        new LinkedHashMap<String, X509Certificate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, X509Certificate> eldest) {
+                return size() > MAX_ISSUERS;
+            }
+        }
+    );
+
+    private final X509TrustManager delegate;
+    private final RevocationChecker checker;
+
+    public RevocationTrustManager(X509TrustManager delegate, RevocationChecker checker) {
+        this.delegate = delegate;
+        this.checker = checker;
+    }
+
+    public X509TrustManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+
+        delegate.checkClientTrusted(chain, authType);
+
+        X509Certificate cert = chain[0];
+
+        // a self-signed certificate cannot be revoked by its issuer
+        if (cert.getSubjectX500Principal().equals(cert.getIssuerX500Principal())) {
+            return;
+        }
+
+        X509Certificate issuer = getIssuer(chain);
+        if (issuer == null) {
+            throw new CertificateException("Unable to find issuer of " + cert.getSubjectX500Principal());
+        }
+
+        checker.check(cert, issuer);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    /**
+     * Returns the issuer of the first certificate of a chain that has
+     * already been validated, from the cache if the same issuer name and
+     * authority key identifier were seen before.
+     *
+     * Without the cache each handshake verifies the signature again, and
+     * searches the CA certificates in the NSS database if the client only
+     * sent its own certificate.
+     */
+    static X509Certificate getIssuer(X509Certificate[] chain) {
+
+        String key = getIssuerKey(chain[0]);
+        if (key == null) {
+            return findIssuer(chain);
+        }
+
+        X509Certificate issuer = issuers.get(key);
+        if (issuer != null) {
+            return issuer;
+        }
+
+        issuer = findIssuer(chain);
+        if (issuer != null) {
+            issuers.put(key, issuer);
+        }
+
+        return issuer;
+    }
+
+    /**
+     * Returns the issuer name and the authority key identifier of the
+     * certificate, or null if it has no authority key identifier.
+     */
+    static String getIssuerKey(X509Certificate cert) {
+
+        byte[] aki = cert.getExtensionValue("2.5.29.35");
+        if (aki == null) {
+            return null;
+        }
+
+        return cert.getIssuerX500Principal().getName() + "/" + HexFormat.of().formatHex(aki);
+    }
+
+    /**
+     * Returns the issuer of the first certificate from the chain sent by
+     * the client, or from the CA certificates in the NSS database.
+     */
+    private static X509Certificate findIssuer(X509Certificate[] chain) {
+
+        X509Certificate cert = chain[0];
+
+        if (chain.length > 1 && isIssuer(chain[1], cert)) {
+            return chain[1];
+        }
+
+        try {
+            for (org.mozilla.jss.crypto.X509Certificate caCert : CryptoManager.getInstance().getCACerts()) {
+                if (caCert instanceof X509Certificate && isIssuer((X509Certificate) caCert, cert)) {
+                    return (X509Certificate) caCert;
+                }
+            }
+
+        } catch (Exception e) {
+            logger.warn("RevocationTrustManager: unable to get CA certificates: {}", e.getMessage(), e);
+        }
+
+        return null;
+    }
+
+    static boolean isIssuer(X509Certificate issuer, X509Certificate cert) {
+
+        if (!issuer.getSubjectX500Principal().equals(cert.getIssuerX500Principal())) {
+            return false;
+        }
+
+        try {
+            cert.verify(issuer.getPublicKey());
+            return true;
+
+        } catch (GeneralSecurityException e) {
+            // same name, different key (e.g. a renewed CA)
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning a server handshake, from engine creation
+ * to the handshake completed notification.
+ */
+@Name("org.dogtagpki.tomcatjss.SSLHandshake")
+@Label("SSL Handshake")
+@Category({ "Tomcat JSS", "TLS" })
+@Description("Server-side TLS handshake")
+public class SSLHandshakeEvent extends Event {
+
+    @Label("Protocol")
+    public String protocol;
+
+    @Label("Cipher Suite")
+    public String cipherSuite;
+
+    @Label("Peer Host")
+    public String peerHost;
+}
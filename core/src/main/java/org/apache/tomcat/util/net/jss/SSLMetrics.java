@@ -0,0 +1,332 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+
+import org.mozilla.jss.nss.SSL;
+import org.mozilla.jss.nss.SSLChannelInfo;
+import org.mozilla.jss.nss.SSLFDProxy;
+import org.mozilla.jss.ssl.SSLAlertDescription;
+import org.mozilla.jss.ssl.SSLAlertEvent;
+import org.mozilla.jss.ssl.SSLHandshakeCompletedEvent;
+import org.mozilla.jss.ssl.SSLSocketListener;
+import org.mozilla.jss.ssl.javax.JSSEngineReferenceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TLS handshake and alert metrics published as a JMX MXBean.
+ *
+ * All counters are LongAdders so that concurrent handshakes do not
+ * contend on a single variable. Handshake start times are kept in
+ * a striped weak map keyed by the engine, so engines that never finish
+ * the handshake are simply garbage collected.
+ */
+public class SSLMetrics implements SSLSocketListener, SSLMetricsMXBean {
+
+    public static final Logger logger = LoggerFactory.getLogger(SSLMetrics.class);
+
+    public static final String OBJECT_NAME = "org.dogtagpki.tomcatjss:type=SSLMetrics";
+
+    // upper bounds of the handshake time histogram buckets in milliseconds
+    static final long[] BUCKETS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, Long.MAX_VALUE };
+
+    private final StripedWeakMap<Object, Long> startTimes = new StripedWeakMap<>();
+
+    private final LongAdder fullHandshakes = new LongAdder();
+    private final LongAdder resumedHandshakes = new LongAdder();
+    private final LongAdder timedHandshakes = new LongAdder();
+    private final LongAdder handshakeTime = new LongAdder(); // microseconds
+    private final LongAdder[] histogram = new LongAdder[BUCKETS.length];
+
+    private final Map<String, LongAdder> protocols = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> cipherSuites = new ConcurrentHashMap<>();
+
+    private final LongAdder alertsSent = new LongAdder();
+    private final LongAdder alertsReceived = new LongAdder();
+    private final Map<String, LongAdder> alertsSentByType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> alertsReceivedByType = new ConcurrentHashMap<>();
+
+    private final LongAdder enginePoolHits = new LongAdder();
+    private final LongAdder enginePoolMisses = new LongAdder();
+
+    private ObjectName objectName;
+
+    public SSLMetrics() {
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        objectName = new ObjectName(OBJECT_NAME);
+        server.registerMBean(this, objectName);
+        logger.debug("SSLMetrics: registered {}", objectName);
+    }
+
+    public void unregister() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(objectName);
+        objectName = null;
+    }
+
+    /**
+     * Records the start of a handshake, normally when the engine is created.
+     */
+    public void handshakeStarted(Object source) {
+        startTimes.put(source, System.nanoTime());
+    }
+
+    @Override
+    public void handshakeCompleted(SSLHandshakeCompletedEvent event) {
+
+        Object source = event.getSource();
+
+        Long start = startTimes.remove(source);
+
+        SSLSession session = null;
+        if (source instanceof SSLEngine) {
+            session = ((SSLEngine) source).getSession();
+        }
+
+        if (start != null) {
+            long micros = (System.nanoTime() - start) / 1000;
+            timedHandshakes.increment();
+            handshakeTime.add(micros);
+
+            long millis = micros / 1000;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (millis < BUCKETS[i]) {
+                    histogram[i].increment();
+                    break;
+                }
+            }
+        }
+
+        if (isResumed(source)) {
+            resumedHandshakes.increment();
+        } else {
+            fullHandshakes.increment();
+        }
+
+        if (session != null) {
+            increment(protocols, session.getProtocol());
+            increment(cipherSuites, session.getCipherSuite());
+        }
+    }
+
+    /**
+     * Returns whether NSS resumed a session in the handshake of the engine.
+     */
+    static boolean isResumed(Object source) {
+
+        if (!(source instanceof JSSEngineReferenceImpl)) {
+            return false;
+        }
+
+        SSLFDProxy fd = ((JSSEngineReferenceImpl) source).getSSLFDProxy();
+        if (fd == null) {
+            return false;
+        }
+
+        try {
+            SSLChannelInfo info = SSL.GetChannelInfo(fd);
+            return info != null && info.isResumed();
+
+        } catch (Exception e) {
+            logger.debug("SSLMetrics: unable to get channel info: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void alertReceived(SSLAlertEvent event) {
+        alertsReceived.increment();
+        increment(alertsReceivedByType, getAlertType(event));
+    }
+
+    @Override
+    public void alertSent(SSLAlertEvent event) {
+        alertsSent.increment();
+        increment(alertsSentByType, getAlertType(event));
+    }
+
+    /**
+     * Records whether an engine was taken from an engine pool or had to
+     * be created on demand.
+     */
+    public void engineTaken(boolean pooled) {
+        if (pooled) {
+            enginePoolHits.increment();
+        } else {
+            enginePoolMisses.increment();
+        }
+    }
+
+    static String getAlertType(SSLAlertEvent event) {
+        int description = event.getDescription();
+        SSLAlertDescription alert = SSLAlertDescription.valueOf(description);
+        return alert == null ? Integer.toString(description) : alert.toString();
+    }
+
+    static void increment(Map<String, LongAdder> counters, String key) {
+        if (key == null) {
+            key = "unknown";
+        }
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    static Map<String, Long> toMap(Map<String, LongAdder> counters) {
+        Map<String, Long> map = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public long getHandshakes() {
+        return fullHandshakes.sum() + resumedHandshakes.sum();
+    }
+
+    @Override
+    public long getFullHandshakes() {
+        return fullHandshakes.sum();
+    }
+
+    @Override
+    public long getResumedHandshakes() {
+        return resumedHandshakes.sum();
+    }
+
+    @Override
+    public double getResumptionRatio() {
+        long resumed = resumedHandshakes.sum();
+        long total = resumed + fullHandshakes.sum();
+        return total == 0 ? 0 : (double) resumed / total;
+    }
+
+    @Override
+    public double getAverageHandshakeTime() {
+        long count = timedHandshakes.sum();
+        return count == 0 ? 0 : handshakeTime.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public Map<String, Long> getHandshakeTimeHistogram() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS.length; i++) {
+            String bound = BUCKETS[i] == Long.MAX_VALUE ? "+Inf" : Long.toString(BUCKETS[i]);
+            map.put(bound, histogram[i].sum());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public Map<String, Long> getProtocols() {
+        return toMap(protocols);
+    }
+
+    @Override
+    public Map<String, Long> getCipherSuites() {
+        return toMap(cipherSuites);
+    }
+
+    @Override
+    public long getAlertsSent() {
+        return alertsSent.sum();
+    }
+
+    @Override
+    public long getAlertsReceived() {
+        return alertsReceived.sum();
+    }
+
+    @Override
+    public Map<String, Long> getAlertsSentByType() {
+        return toMap(alertsSentByType);
+    }
+
+    @Override
+    public Map<String, Long> getAlertsReceivedByType() {
+        return toMap(alertsReceivedByType);
+    }
+
+    @Override
+    public long getEnginePoolHits() {
+        return enginePoolHits.sum();
+    }
+
+    @Override
+    public long getEnginePoolMisses() {
+        return enginePoolMisses.sum();
+    }
+
+    @Override
+    public long getStartupTime() {
+        return TomcatJSS.getInstance().getStartupProfile().getDuration();
+    }
+
+    @Override
+    public Map<String, Long> getStartupPhases() {
+        return TomcatJSS.getInstance().getStartupProfile().getPhases();
+    }
+
+    @Override
+    public long getFirstHandshakeTime() {
+        return TomcatJSS.getInstance().getStartupProfile().getFirstHandshakeTime();
+    }
+
+    @Override
+    public void reset() {
+        fullHandshakes.reset();
+        resumedHandshakes.reset();
+        timedHandshakes.reset();
+        handshakeTime.reset();
+        for (LongAdder bucket : histogram) {
+            bucket.reset();
+        }
+        protocols.clear();
+        cipherSuites.clear();
+        alertsSent.reset();
+        alertsReceived.reset();
+        alertsSentByType.clear();
+        alertsReceivedByType.clear();
+        enginePoolHits.reset();
+        enginePoolMisses.reset();
+    }
+}
@@ -0,0 +1,97 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.Map;
+
+/**
+ * JMX view of the TLS handshake and alert metrics.
+ */
+public interface SSLMetricsMXBean {
+
+    public long getHandshakes();
+
+    public long getFullHandshakes();
+
+    public long getResumedHandshakes();
+
+    public double getResumptionRatio();
+
+    /**
+     * Returns the average handshake time in milliseconds, measured from
+     * engine creation to handshake completion.
+     */
+    public double getAverageHandshakeTime();
+
+    /**
+     * Returns the number of handshakes per latency bucket. The key is the
+     * upper bound of the bucket in milliseconds.
+     */
+    public Map<String, Long> getHandshakeTimeHistogram();
+
+    public Map<String, Long> getProtocols();
+
+    public Map<String, Long> getCipherSuites();
+
+    public long getAlertsSent();
+
+    public long getAlertsReceived();
+
+    /**
+     * Returns the number of alerts sent per alert description.
+     */
+    public Map<String, Long> getAlertsSentByType();
+
+    /**
+     * Returns the number of alerts received per alert description.
+     */
+    public Map<String, Long> getAlertsReceivedByType();
+
+    /**
+     * Returns the number of engines taken from an engine pool.
+     */
+    public long getEnginePoolHits();
+
+    /**
+     * Returns the number of engines created on demand because the
+     * engine pool was empty.
+     */
+    public long getEnginePoolMisses();
+
+    /**
+     * Returns the TomcatJSS startup time in milliseconds, or -1 if the
+     * startup has not completed.
+     */
+    public long getStartupTime();
+
+    /**
+     * Returns the time spent in each startup phase in milliseconds.
+     */
+    public Map<String, Long> getStartupPhases();
+
+    /**
+     * Returns the time in milliseconds from the start of the TomcatJSS
+     * startup to the first completed handshake, or -1 if there has been
+     * none. It is not cleared by reset().
+     */
+    public long getFirstHandshakeTime();
+
+    public void reset();
+}
@@ -0,0 +1,150 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers SSL socket events to listeners on a dedicated thread.
+ *
+ * Events are put on a bounded queue so that a slow listener does not
+ * delay the handshake thread. If the queue is full the event is dropped
+ * and counted. Events still queued when the dispatcher is stopped are
+ * dropped and counted as well.
+ *
+ * The events are delivered as they are, and their source is the engine
+ * of the connection. By the time a listener runs, the engine may have
+ * finished more of the connection or been closed, so listeners must not
+ * read the engine or its session from these events.
+ */
+public class SocketListenerDispatcher implements Runnable {
+
+    public static final Logger logger = LoggerFactory.getLogger(SocketListenerDispatcher.class);
+
+    private final BlockingQueue<Runnable> queue;
+
+    private final LongAdder dispatchedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private Thread thread;
+    private volatile boolean running;
+
+    public SocketListenerDispatcher(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public synchronized void start() {
+
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        thread = new Thread(this, "TomcatJSS-SocketListenerDispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        thread.interrupt();
+
+        List<Runnable> pending = new ArrayList<>();
+        queue.drainTo(pending);
+
+        if (!pending.isEmpty()) {
+            droppedEvents.add(pending.size());
+            logger.warn("SocketListenerDispatcher: stopped, {} pending event(s) dropped", pending.size());
+        }
+    }
+
+    /**
+     * Queues the event for delivery.
+     *
+     * @return false if the queue is full and the event was dropped
+     */
+    public boolean dispatch(Runnable event) {
+
+        if (queue.offer(event)) {
+            return true;
+        }
+
+        droppedEvents.increment();
+
+        long dropped = droppedEvents.sum();
+        if (Long.bitCount(dropped) == 1) {
+            // log on 1, 2, 4, 8, ... dropped events to avoid flooding the log
+            logger.warn("SocketListenerDispatcher: queue full, {} event(s) dropped so far", dropped);
+        }
+
+        return false;
+    }
+
+    @Override
+    public void run() {
+
+        logger.debug("SocketListenerDispatcher: started");
+
+        while (running) {
+            Runnable event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            try {
+                event.run();
+            } catch (RuntimeException e) {
+                logger.warn("SocketListenerDispatcher: listener failed: {}", e.getMessage(), e);
+            }
+
+            dispatchedEvents.increment();
+        }
+
+        logger.debug("SocketListenerDispatcher: stopped");
+    }
+
+    public int getPendingEvents() {
+        return queue.size();
+    }
+
+    public long getDispatchedEvents() {
+        return dispatchedEvents.sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+}
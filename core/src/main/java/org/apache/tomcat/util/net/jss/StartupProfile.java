@@ -0,0 +1,127 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Time spent in each phase of the TomcatJSS startup, from loading the
+ * configuration to the first completed handshake.
+ *
+ * Some phases run at the same time (e.g. the password store is loaded
+ * while NSS is initialized), so the phases may add up to more than the
+ * total startup time.
+ */
+public class StartupProfile {
+
+    public static final Logger logger = LoggerFactory.getLogger(StartupProfile.class);
+
+    private final long start = System.nanoTime();
+
+    // phase name -> milliseconds, in the order the phases completed
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private volatile long duration = -1; // milliseconds
+    private volatile long uptime = -1; // milliseconds since JVM start
+    private final AtomicLong firstHandshake = new AtomicLong(-1); // milliseconds
+
+    /**
+     * Returns the start time of a phase to be passed to add().
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void add(String phase, long start) {
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        synchronized (phases) {
+            phases.put(phase, elapsed);
+        }
+    }
+
+    /**
+     * Marks the end of the startup and logs the profile.
+     */
+    public void complete() {
+
+        duration = (System.nanoTime() - start) / 1_000_000;
+        uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        logger.info("StartupProfile: TomcatJSS started in {} ms ({} ms after JVM start)", duration, uptime);
+        for (Map.Entry<String, Long> entry : getPhases().entrySet()) {
+            logger.info("StartupProfile: - {}: {} ms", entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Records the first completed handshake. Only the first call
+     * has any effect.
+     */
+    public void handshakeCompleted() {
+
+        if (firstHandshake.get() >= 0) {
+            return;
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (!firstHandshake.compareAndSet(-1, elapsed)) {
+            return;
+        }
+
+        logger.info("StartupProfile: first handshake completed {} ms after startup ({} ms after JVM start)",
+                elapsed, ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    public Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    /**
+     * Returns the startup time in milliseconds, or -1 if the startup
+     * has not completed.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the JVM uptime in milliseconds when the startup completed,
+     * or -1 if the startup has not completed.
+     */
+    public long getUptime() {
+        return uptime;
+    }
+
+    /**
+     * Returns the time in milliseconds from the start of the startup to
+     * the first completed handshake, or -1 if there has been none.
+     */
+    public long getFirstHandshakeTime() {
+        return firstHandshake.get();
+    }
+}
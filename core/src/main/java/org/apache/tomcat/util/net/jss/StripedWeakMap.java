@@ -0,0 +1,63 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Weak-keyed map split into independently locked stripes.
+ *
+ * Used to attach per-handshake state to engines: entries for engines
+ * that never complete the handshake disappear when the engine is
+ * garbage collected.
+ */
+class StripedWeakMap<K, V> {
+
+    static final int STRIPES = 16;
+
+    private final List<Map<K, V>> stripes = new ArrayList<>(STRIPES);
+
+    StripedWeakMap() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new WeakHashMap<>());
+        }
+    }
+
+    private Map<K, V> getStripe(Object key) {
+        return stripes.get((System.identityHashCode(key) & 0x7fffffff) % STRIPES);
+    }
+
+    void put(K key, V value) {
+        Map<K, V> stripe = getStripe(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    V remove(Object key) {
+        Map<K, V> stripe = getStripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+}
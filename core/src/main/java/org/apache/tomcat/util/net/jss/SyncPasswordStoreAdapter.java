@@ -0,0 +1,135 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Makes an IAsyncPasswordStore usable as an IPasswordStore, so that
+ * TomcatJSS.getPasswordStore() works with any passwordClass.
+ *
+ * The calls wait up to the timeout for the async store, and return
+ * null if the password cannot be fetched in time. The store is read
+ * only, so putPassword() and commit() are not supported.
+ */
+public class SyncPasswordStoreAdapter implements IPasswordStore {
+
+    public static final Logger logger = LoggerFactory.getLogger(SyncPasswordStoreAdapter.class);
+
+    private final IAsyncPasswordStore store;
+    private final int timeout; // seconds
+
+    /**
+     * @param store initialized async password store
+     * @param timeout seconds to wait for each call
+     */
+    public SyncPasswordStoreAdapter(IAsyncPasswordStore store, int timeout) {
+        this.store = store;
+        this.timeout = timeout;
+    }
+
+    public IAsyncPasswordStore getAsyncPasswordStore() {
+        return store;
+    }
+
+    @Override
+    public void init(String pwdPath) throws IOException {
+        // the async store has already been initialized by TomcatJSS
+    }
+
+    @Override
+    public String getPassword(String tag, int iteration) {
+
+        CompletableFuture<char[]> future = store.getPassword(tag, iteration);
+
+        char[] password;
+        try {
+            password = future.get(timeout, TimeUnit.SECONDS);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+
+        } catch (Exception e) {
+            logger.warn("SyncPasswordStoreAdapter: unable to get password for {}: {}", tag, e.getMessage());
+            // clear the password if it arrives later
+            future.thenAccept(SyncPasswordStoreAdapter::clear);
+            return null;
+        }
+
+        if (password == null) {
+            return null;
+        }
+
+        try {
+            return new String(password);
+        } finally {
+            clear(password);
+        }
+    }
+
+    @Override
+    public String getPassword(String tag) {
+        return getPassword(tag, 0);
+    }
+
+    @Override
+    public Enumeration<String> getTags() {
+
+        try {
+            List<String> tags = store.getTags().get(timeout, TimeUnit.SECONDS);
+            return Collections.enumeration(tags);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyEnumeration();
+
+        } catch (Exception e) {
+            logger.warn("SyncPasswordStoreAdapter: unable to get tags: {}", e.getMessage());
+            return Collections.emptyEnumeration();
+        }
+    }
+
+    @Override
+    public Object putPassword(String tag, String password) {
+        throw new UnsupportedOperationException("Password store is read only");
+    }
+
+    @Override
+    public void commit() throws IOException {
+        throw new UnsupportedOperationException("Password store is read only");
+    }
+
+    private static void clear(char[] password) {
+        if (password != null) {
+            Arrays.fill(password, '\0');
+        }
+    }
+}
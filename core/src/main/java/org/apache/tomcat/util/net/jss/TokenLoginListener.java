@@ -0,0 +1,37 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+/**
+ * Notified when the token monitor has logged into a token again.
+ *
+ * The certificate and key handles obtained before the token was lost
+ * may no longer be valid, so listeners rebuild whatever holds them
+ * (e.g. the SSL contexts of a connector).
+ */
+public interface TokenLoginListener {
+
+    /**
+     * Called on the token monitor thread after a successful login.
+     *
+     * @param tag the token tag in the password file
+     */
+    void tokenLoggedIn(String tag);
+}
@@ -0,0 +1,121 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Outcome of the login into one token at startup, for the login report.
+ *
+ * The result is completed once, either by the login thread or by the
+ * startup thread when the login times out. A login thread that is still
+ * running after the timeout cannot change the reported outcome.
+ */
+public class TokenLoginResult {
+
+    public enum Status {
+        LOGGED_IN, NOT_LOGGED_IN, TIMED_OUT, FAILED
+    }
+
+    static final class Outcome {
+
+        final Status status;
+        final int retries;
+        final long duration; // milliseconds
+        final Exception error;
+
+        Outcome(Status status, int retries, long duration, Exception error) {
+            this.status = status;
+            this.retries = retries;
+            this.duration = duration;
+            this.error = error;
+        }
+    }
+
+    private final String tag;
+
+    // updated by the login thread until the result is completed
+    private volatile int retries;
+
+    private final AtomicReference<Outcome> outcome = new AtomicReference<>();
+
+    public TokenLoginResult(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Sets the outcome unless the result has already been completed.
+     *
+     * @return true if this call completed the result
+     */
+    public boolean complete(Status status, long duration, Exception error) {
+        return outcome.compareAndSet(null, new Outcome(status, retries, duration, error));
+    }
+
+    public Status getStatus() {
+        Outcome o = outcome.get();
+        return o == null ? Status.NOT_LOGGED_IN : o.status;
+    }
+
+    public int getRetries() {
+        Outcome o = outcome.get();
+        return o == null ? retries : o.retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public long getDuration() {
+        Outcome o = outcome.get();
+        return o == null ? 0 : o.duration;
+    }
+
+    public Exception getError() {
+        Outcome o = outcome.get();
+        return o == null ? null : o.error;
+    }
+
+    @Override
+    public String toString() {
+
+        Status status = getStatus();
+        int retries = getRetries();
+        long duration = getDuration();
+        Exception error = getError();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(tag).append(": ").append(status).append(" in ").append(duration).append(" ms");
+
+        if (retries > 0) {
+            sb.append(" after ").append(retries).append(" retr").append(retries == 1 ? "y" : "ies");
+        }
+
+        if (error != null) {
+            sb.append(" (").append(error.getMessage()).append(")");
+        }
+
+        return sb.toString();
+    }
+}
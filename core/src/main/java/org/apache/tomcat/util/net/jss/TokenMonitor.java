@@ -0,0 +1,209 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.mozilla.jss.crypto.CryptoToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically checks that the tokens in the password file are still
+ * logged in, and logs into them again with the password store if they
+ * are not (e.g. after the connection to an HSM was lost), so that the
+ * server keys become usable again without restarting the server.
+ *
+ * After a token has been logged into again the TokenLoginListeners
+ * are notified, so that the connectors rebuild their SSL contexts with
+ * new certificate and key handles.
+ */
+public class TokenMonitor implements TokenMonitorMXBean {
+
+    public static final Logger logger = LoggerFactory.getLogger(TokenMonitor.class);
+
+    public static final String OBJECT_NAME = "org.dogtagpki.tomcatjss:type=TokenMonitor";
+
+    static final class TokenState {
+
+        volatile boolean loggedIn = true;
+
+        final LongAdder logouts = new LongAdder();
+        final LongAdder relogins = new LongAdder();
+        final LongAdder reloginFailures = new LongAdder();
+    }
+
+    private final TomcatJSS tomcatjss;
+    private final int interval; // seconds
+
+    // tag -> state, fixed at construction
+    private final Map<String, TokenState> tokens;
+
+    private ScheduledExecutorService scheduler;
+    private ObjectName objectName;
+
+    /**
+     * @param tags tags of the tokens to check
+     * @param interval seconds between checks
+     */
+    public TokenMonitor(TomcatJSS tomcatjss, List<String> tags, int interval) {
+
+        this.tomcatjss = tomcatjss;
+        this.interval = interval;
+
+        Map<String, TokenState> tokens = new LinkedHashMap<>();
+        for (String tag : tags) {
+            tokens.put(tag, new TokenState());
+        }
+        this.tokens = Collections.unmodifiableMap(tokens);
+    }
+
+    public void start() {
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TomcatJSS-TokenMonitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkTokens();
+            } catch (Throwable e) {
+                logger.warn("TokenMonitor: unable to check tokens: {}", e.getMessage(), e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        objectName = new ObjectName(OBJECT_NAME);
+        server.registerMBean(this, objectName);
+        logger.debug("TokenMonitor: registered {}", objectName);
+    }
+
+    public void unregister() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(objectName);
+        objectName = null;
+    }
+
+    @Override
+    public synchronized void checkTokens() {
+        for (Map.Entry<String, TokenState> entry : tokens.entrySet()) {
+            checkToken(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void checkToken(String tag, TokenState state) {
+
+        try {
+            CryptoToken token = tomcatjss.getToken(tag);
+
+            if (token.isLoggedIn()) {
+                state.loggedIn = true;
+                return;
+            }
+
+            // count each logout once, not every check until the login succeeds
+            if (state.loggedIn) {
+                state.loggedIn = false;
+                state.logouts.increment();
+            }
+
+            logger.warn("TokenMonitor: {} is not logged in, logging in again", tag);
+
+            tomcatjss.login(tag);
+
+            if (token.isLoggedIn()) {
+                state.loggedIn = true;
+                state.relogins.increment();
+                logger.info("TokenMonitor: logged into {} again", tag);
+
+                // the cached certificate and key handles may be stale
+                tomcatjss.fireTokenLoggedIn(tag);
+                return;
+            }
+
+            state.reloginFailures.increment();
+            logger.error("TokenMonitor: unable to log into {} again", tag);
+
+        } catch (Exception e) {
+            state.loggedIn = false;
+            state.reloginFailures.increment();
+            logger.error("TokenMonitor: unable to log into {} again: {}", tag, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int getInterval() {
+        return interval;
+    }
+
+    @Override
+    public Map<String, Boolean> getLoggedIn() {
+        return toMap(state -> state.loggedIn);
+    }
+
+    @Override
+    public Map<String, Long> getLogouts() {
+        return toMap(state -> state.logouts.sum());
+    }
+
+    @Override
+    public Map<String, Long> getRelogins() {
+        return toMap(state -> state.relogins.sum());
+    }
+
+    @Override
+    public Map<String, Long> getReloginFailures() {
+        return toMap(state -> state.reloginFailures.sum());
+    }
+
+    <T> Map<String, T> toMap(Function<TokenState, T> function) {
+        Map<String, T> map = new LinkedHashMap<>();
+        for (Map.Entry<String, TokenState> entry : tokens.entrySet()) {
+            map.put(entry.getKey(), function.apply(entry.getValue()));
+        }
+        return map;
+    }
+}
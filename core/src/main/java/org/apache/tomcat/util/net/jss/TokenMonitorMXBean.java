@@ -0,0 +1,59 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.util.Map;
+
+/**
+ * JMX view of the token monitor. The maps are keyed by the token tag
+ * in the password file (e.g. internal or hardware-HSM).
+ */
+public interface TokenMonitorMXBean {
+
+    /**
+     * Returns the number of seconds between token checks.
+     */
+    public int getInterval();
+
+    /**
+     * Returns whether each token was logged in at the last check.
+     */
+    public Map<String, Boolean> getLoggedIn();
+
+    /**
+     * Returns the number of times each token was found logged out.
+     */
+    public Map<String, Long> getLogouts();
+
+    /**
+     * Returns the number of successful logins after a logout.
+     */
+    public Map<String, Long> getRelogins();
+
+    /**
+     * Returns the number of failed logins after a logout.
+     */
+    public Map<String, Long> getReloginFailures();
+
+    /**
+     * Checks the tokens now instead of waiting for the next check.
+     */
+    public void checkTokens();
+}
@@ -23,15 +23,34 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.SocketException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Enumeration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.JMException;
 import javax.naming.ConfigurationException;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -44,6 +63,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.mozilla.jss.CertDatabaseException;
 import org.mozilla.jss.CryptoManager;
 import org.mozilla.jss.InitializationValues;
+import org.mozilla.jss.JSSProvider;
 import org.mozilla.jss.KeyDatabaseException;
 import org.mozilla.jss.NoSuchTokenException;
 import org.mozilla.jss.NotInitializedException;
@@ -53,6 +73,7 @@ import org.mozilla.jss.crypto.TokenException;
 import org.mozilla.jss.ssl.SSLAlertEvent;
 import org.mozilla.jss.ssl.SSLHandshakeCompletedEvent;
 import org.mozilla.jss.ssl.SSLServerSocket;
+import org.mozilla.jss.ssl.SSLSocket;
 import org.mozilla.jss.ssl.SSLSocketListener;
 import org.mozilla.jss.util.IncorrectPasswordException;
 import org.mozilla.jss.util.Password;
@@ -72,18 +93,55 @@ public class TomcatJSS implements SSLSocketListener {
 
     public static TomcatJSS getInstance() { return INSTANCE; }
 
-    Collection<SSLSocketListener> socketListeners = new ArrayList<>();
+    // copy-on-write so that handshake threads can iterate without locking
+    Collection<SSLSocketListener> socketListeners = new CopyOnWriteArrayList<>();
+
+    boolean asyncSocketListeners;
+    int socketListenerQueueSize = 1024; // events
+    // set in init() and shutdown(), read on the handshake threads
+    volatile SocketListenerDispatcher socketListenerDispatcher;
+
+    boolean enableMetrics;
+    SSLMetrics metrics;
+
+    int enginePoolSize; // engines per SSL host config, 0 = disabled
+
+    boolean enableCertReload;
+
+    // JFR handshake events in progress
+    StripedWeakMap<Object, SSLHandshakeEvent> handshakeEvents = new StripedWeakMap<>();
 
     String certdbDir;
     CryptoManager manager;
 
     String passwordClass;
     String passwordFile;
-    IPasswordStore passwordStore;
+    IPasswordStore passwordStore; // SyncPasswordStoreAdapter if passwordClass is an IAsyncPasswordStore
+    int passwordCacheTimeout = 300; // seconds, 0 = passwords are not cached
+    int passwordTimeout = 30; // seconds (default: 30 seconds)
+    IAsyncPasswordStore asyncPasswordStore;
+    List<String> passwordTags = Collections.emptyList();
+
+    int loginTimeout = 60; // seconds for all tokens, 0 = no limit
+    int loginRetries = 2; // retries after a token error
+    int loginRetryDelay = 1; // seconds before the first retry, doubled for each retry
+
+    List<TokenLoginResult> loginResults = Collections.emptyList();
+
+    int tokenMonitorInterval; // seconds between token checks, 0 = disabled
+    TokenMonitor tokenMonitor;
+    Collection<TokenLoginListener> tokenLoginListeners = new CopyOnWriteArrayList<>();
 
     String serverCertNickFile;
     String serverCertNick;
 
+    // optional EC certificate served next to the RSA one
+    String serverECCertNickFile;
+    String serverECCertNick;
+
+    // hostname=nickname pairs for SNI, see getSNIServerCertNickMap()
+    String sniServerCertNicks;
+
     String clientAuth = "want";
     boolean requireClientAuth;
     boolean wantClientAuth;
@@ -95,6 +153,44 @@ public class TomcatJSS implements SSLSocketListener {
     int ocspMinCacheEntryDuration = 3600; // seconds (default: 1 hour)
     int ocspMaxCacheEntryDuration = 86400; // seconds (default: 24 hours)
     int ocspTimeout = 60; // seconds (default: 1 minute)
+    String ocspCacheDirectory;
+
+    boolean asyncOCSP;
+    boolean ocspSoftFail;
+    int ocspHandshakeTimeout = 5; // seconds
+    int ocspFailureThreshold = 5; // consecutive failures before a responder is skipped
+    int ocspRetryInterval = 60; // seconds before a skipped responder is tried again
+
+    // OCSP settings in use, replaced as a whole by reconfigureOCSP();
+    // once set, getOcspCacheSize() etc. return these instead of the fields
+    AtomicReference<OCSPConfig> ocspConfig = new AtomicReference<>();
+    OCSPChecker ocspChecker;
+    OCSPManager ocspManager;
+
+    boolean enableOCSPStapling;
+    String ocspStaplingResponderURL;
+    int ocspStaplingTimeout = 5; // seconds (default: 5 seconds)
+
+    String crlDirectory;
+    String crlIndexFile;
+    int crlUpdateInterval = 300; // seconds (default: 5 minutes)
+
+    // revocation checks done by tomcatjss instead of NSS
+    RevocationChecker revocationChecker;
+    AsyncOCSPChecker asyncOCSPChecker;
+    CRLChecker crlChecker;
+
+    int validationCacheSize; // entries, 0 = disabled
+    int validationCacheTimeout = 300; // seconds (default: 5 minutes)
+    int validationCacheNegativeTimeout = 30; // seconds
+
+    ValidationCache validationCache;
+
+    int sessionCacheSize; // entries (default: 0 = NSS default)
+    int sessionCacheTimeout = 43200; // seconds (default: 12 hours)
+    String sessionCacheDirectory;
+
+    boolean enableSessionTickets;
 
     String strictCiphers;
     boolean boolStrictCiphers;
@@ -105,6 +201,8 @@ public class TomcatJSS implements SSLSocketListener {
     String ssl3Ciphers;
     String tlsCiphers;
 
+    StartupProfile startupProfile = new StartupProfile();
+
     boolean initialized;
 
     public void addSocketListener(SSLSocketListener listener) {
@@ -119,6 +217,54 @@ public class TomcatJSS implements SSLSocketListener {
         return socketListeners;
     }
 
+    public boolean getAsyncSocketListeners() {
+        return asyncSocketListeners;
+    }
+
+    public void setAsyncSocketListeners(boolean asyncSocketListeners) {
+        this.asyncSocketListeners = asyncSocketListeners;
+    }
+
+    public int getSocketListenerQueueSize() {
+        return socketListenerQueueSize;
+    }
+
+    public void setSocketListenerQueueSize(int socketListenerQueueSize) {
+        this.socketListenerQueueSize = socketListenerQueueSize;
+    }
+
+    public SocketListenerDispatcher getSocketListenerDispatcher() {
+        return socketListenerDispatcher;
+    }
+
+    public boolean getEnableMetrics() {
+        return enableMetrics;
+    }
+
+    public void setEnableMetrics(boolean enableMetrics) {
+        this.enableMetrics = enableMetrics;
+    }
+
+    public SSLMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getEnginePoolSize() {
+        return enginePoolSize;
+    }
+
+    public void setEnginePoolSize(int enginePoolSize) {
+        this.enginePoolSize = enginePoolSize;
+    }
+
+    public boolean getEnableCertReload() {
+        return enableCertReload;
+    }
+
+    public void setEnableCertReload(boolean enableCertReload) {
+        this.enableCertReload = enableCertReload;
+    }
+
     public String getCertdbDir() {
         return certdbDir;
     }
@@ -143,16 +289,106 @@ public class TomcatJSS implements SSLSocketListener {
         this.passwordFile = passwordFile;
     }
 
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    public void setLoginTimeout(int loginTimeout) {
+        this.loginTimeout = loginTimeout;
+    }
+
+    public int getLoginRetries() {
+        return loginRetries;
+    }
+
+    public void setLoginRetries(int loginRetries) {
+        this.loginRetries = loginRetries;
+    }
+
+    public int getLoginRetryDelay() {
+        return loginRetryDelay;
+    }
+
+    public void setLoginRetryDelay(int loginRetryDelay) {
+        this.loginRetryDelay = loginRetryDelay;
+    }
+
+    public int getTokenMonitorInterval() {
+        return tokenMonitorInterval;
+    }
+
+    public void setTokenMonitorInterval(int tokenMonitorInterval) {
+        this.tokenMonitorInterval = tokenMonitorInterval;
+    }
+
+    public TokenMonitor getTokenMonitor() {
+        return tokenMonitor;
+    }
+
+    public void addTokenLoginListener(TokenLoginListener listener) {
+        tokenLoginListeners.add(listener);
+    }
+
+    public void removeTokenLoginListener(TokenLoginListener listener) {
+        tokenLoginListeners.remove(listener);
+    }
+
+    /**
+     * Notifies the listeners that the token monitor logged into a token again.
+     */
+    void fireTokenLoggedIn(String tag) {
+        for (TokenLoginListener listener : tokenLoginListeners) {
+            try {
+                listener.tokenLoggedIn(tag);
+            } catch (RuntimeException e) {
+                logger.warn("TomcatJSS: token login listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the results of the token logins at startup.
+     */
+    public List<TokenLoginResult> getLoginResults() {
+        return loginResults;
+    }
+
     public String getServerCertNickFile() {
         return serverCertNickFile;
     }
 
+    /**
+     * Returns the password store. If passwordClass is an IAsyncPasswordStore
+     * this is a blocking view of it, see getAsyncPasswordStore().
+     */
     public IPasswordStore getPasswordStore() {
         return passwordStore;
     }
 
     public void setPasswordStore(IPasswordStore passwordStore) {
         this.passwordStore = passwordStore;
+        this.asyncPasswordStore = new AsyncPasswordStoreAdapter(passwordStore);
+        this.passwordTags = Collections.list(passwordStore.getTags());
+    }
+
+    public int getPasswordCacheTimeout() {
+        return passwordCacheTimeout;
+    }
+
+    public void setPasswordCacheTimeout(int passwordCacheTimeout) {
+        this.passwordCacheTimeout = passwordCacheTimeout;
+    }
+
+    public int getPasswordTimeout() {
+        return passwordTimeout;
+    }
+
+    public void setPasswordTimeout(int passwordTimeout) {
+        this.passwordTimeout = passwordTimeout;
+    }
+
+    public IAsyncPasswordStore getAsyncPasswordStore() {
+        return asyncPasswordStore;
     }
 
     public void setServerCertNickFile(String serverCertNickFile) {
@@ -167,6 +403,100 @@ public class TomcatJSS implements SSLSocketListener {
         this.serverCertNick = serverCertNick;
     }
 
+    public String getServerECCertNickFile() {
+        return serverECCertNickFile;
+    }
+
+    public void setServerECCertNickFile(String serverECCertNickFile) {
+        this.serverECCertNickFile = serverECCertNickFile;
+    }
+
+    public String getServerECCertNick() {
+        return serverECCertNick;
+    }
+
+    public void setServerECCertNick(String serverECCertNick) {
+        this.serverECCertNick = serverECCertNick;
+    }
+
+    /**
+     * Reads the server certificate nickname from serverCertNickFile again.
+     *
+     * @return the previous nickname
+     */
+    public synchronized String reloadServerCertNick() throws IOException {
+
+        String previous = serverCertNick;
+
+        if (StringUtils.isNotEmpty(serverCertNickFile)) {
+            serverCertNick = new String(Files.readAllBytes(Paths.get(serverCertNickFile))).trim();
+            logger.debug("serverCertNick: {}", serverCertNick);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Reads the EC server certificate nickname from serverECCertNickFile again.
+     *
+     * @return the previous nickname
+     */
+    public synchronized String reloadServerECCertNick() throws IOException {
+
+        String previous = serverECCertNick;
+
+        if (StringUtils.isNotEmpty(serverECCertNickFile)) {
+            serverECCertNick = new String(Files.readAllBytes(Paths.get(serverECCertNickFile))).trim();
+            logger.debug("serverECCertNick: {}", serverECCertNick);
+        }
+
+        return previous;
+    }
+
+    public String getSniServerCertNicks() {
+        return sniServerCertNicks;
+    }
+
+    public void setSniServerCertNicks(String sniServerCertNicks) {
+        this.sniServerCertNicks = sniServerCertNicks;
+    }
+
+    /**
+     * Returns the server certificate nickname for each SNI hostname
+     * from a comma-separated list of hostname=nickname pairs, in the
+     * configured order.
+     */
+    public Map<String, String> getSNIServerCertNickMap() throws ConfigurationException {
+
+        Map<String, String> map = new LinkedHashMap<>();
+
+        if (StringUtils.isEmpty(sniServerCertNicks)) {
+            return map;
+        }
+
+        for (String entry : sniServerCertNicks.split(",")) {
+
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            int i = entry.indexOf('=');
+            if (i <= 0 || i == entry.length() - 1) {
+                throw new ConfigurationException("Invalid SNI server certificate: " + entry);
+            }
+
+            String hostname = entry.substring(0, i).trim().toLowerCase(Locale.ENGLISH);
+            String nickname = entry.substring(i + 1).trim();
+
+            if (map.put(hostname, nickname) != null) {
+                throw new ConfigurationException("Duplicate SNI hostname: " + hostname);
+            }
+        }
+
+        return map;
+    }
+
     public String getClientAuth() {
         return clientAuth;
     }
@@ -192,7 +522,8 @@ public class TomcatJSS implements SSLSocketListener {
     }
 
     public String getOcspResponderURL() {
-        return ocspResponderURL;
+        OCSPConfig config = ocspConfig.get();
+        return config == null ? ocspResponderURL : config.getResponderURL();
     }
 
     public void setOcspResponderURL(String ocspResponderURL) {
@@ -200,7 +531,8 @@ public class TomcatJSS implements SSLSocketListener {
     }
 
     public String getOcspResponderCertNickname() {
-        return ocspResponderCertNickname;
+        OCSPConfig config = ocspConfig.get();
+        return config == null ? ocspResponderCertNickname : config.getResponderCertNickname();
     }
 
     public void setOcspResponderCertNickname(String ocspResponderCertNickname) {
@@ -208,7 +540,8 @@ public class TomcatJSS implements SSLSocketListener {
     }
 
     public int getOcspCacheSize() {
-        return ocspCacheSize;
+        OCSPConfig config = ocspConfig.get();
+        return config == null ? ocspCacheSize : config.getCacheSize();
     }
 
     public void setOcspCacheSize(int ocspCacheSize) {
@@ -216,7 +549,8 @@ public class TomcatJSS implements SSLSocketListener {
     }
 
     public int getOcspMinCacheEntryDuration() {
-        return ocspMinCacheEntryDuration;
+        OCSPConfig config = ocspConfig.get();
+        return config == null ? ocspMinCacheEntryDuration : config.getMinCacheEntryDuration();
     }
 
     public void setOcspMinCacheEntryDuration(int ocspMinCacheEntryDuration) {
@@ -224,7 +558,8 @@ public class TomcatJSS implements SSLSocketListener {
     }
 
     public int getOcspMaxCacheEntryDuration() {
-        return ocspMaxCacheEntryDuration;
+        OCSPConfig config = ocspConfig.get();
+        return config == null ? ocspMaxCacheEntryDuration : config.getMaxCacheEntryDuration();
     }
 
     public void setOcspMaxCacheEntryDuration(int ocspMaxCacheEntryDuration) {
@@ -232,13 +567,185 @@ public class TomcatJSS implements SSLSocketListener {
     }
 
     public int getOcspTimeout() {
-        return ocspTimeout;
+        OCSPConfig config = ocspConfig.get();
+        return config == null ? ocspTimeout : config.getTimeout();
     }
 
     public void setOcspTimeout(int ocspTimeout) {
         this.ocspTimeout = ocspTimeout;
     }
 
+    public String getOcspCacheDirectory() {
+        return ocspCacheDirectory;
+    }
+
+    public void setOcspCacheDirectory(String ocspCacheDirectory) {
+        this.ocspCacheDirectory = ocspCacheDirectory;
+    }
+
+    public boolean getAsyncOCSP() {
+        return asyncOCSP;
+    }
+
+    public void setAsyncOCSP(boolean asyncOCSP) {
+        this.asyncOCSP = asyncOCSP;
+    }
+
+    public boolean getOcspSoftFail() {
+        return ocspSoftFail;
+    }
+
+    public void setOcspSoftFail(boolean ocspSoftFail) {
+        this.ocspSoftFail = ocspSoftFail;
+    }
+
+    public int getOcspHandshakeTimeout() {
+        return ocspHandshakeTimeout;
+    }
+
+    public void setOcspHandshakeTimeout(int ocspHandshakeTimeout) {
+        this.ocspHandshakeTimeout = ocspHandshakeTimeout;
+    }
+
+    public int getOcspFailureThreshold() {
+        return ocspFailureThreshold;
+    }
+
+    public void setOcspFailureThreshold(int ocspFailureThreshold) {
+        this.ocspFailureThreshold = ocspFailureThreshold;
+    }
+
+    public int getOcspRetryInterval() {
+        return ocspRetryInterval;
+    }
+
+    public void setOcspRetryInterval(int ocspRetryInterval) {
+        this.ocspRetryInterval = ocspRetryInterval;
+    }
+
+    /**
+     * Returns the OCSP settings in use, or null if OCSP is not enabled.
+     */
+    public OCSPConfig getOCSPConfig() {
+        return ocspConfig.get();
+    }
+
+    public boolean getEnableOCSPStapling() {
+        return enableOCSPStapling;
+    }
+
+    public void setEnableOCSPStapling(boolean enableOCSPStapling) {
+        this.enableOCSPStapling = enableOCSPStapling;
+    }
+
+    public String getOcspStaplingResponderURL() {
+        return ocspStaplingResponderURL;
+    }
+
+    public void setOcspStaplingResponderURL(String ocspStaplingResponderURL) {
+        this.ocspStaplingResponderURL = ocspStaplingResponderURL;
+    }
+
+    public int getOcspStaplingTimeout() {
+        return ocspStaplingTimeout;
+    }
+
+    public void setOcspStaplingTimeout(int ocspStaplingTimeout) {
+        this.ocspStaplingTimeout = ocspStaplingTimeout;
+    }
+
+    public String getCrlDirectory() {
+        return crlDirectory;
+    }
+
+    public void setCrlDirectory(String crlDirectory) {
+        this.crlDirectory = crlDirectory;
+    }
+
+    public String getCrlIndexFile() {
+        return crlIndexFile;
+    }
+
+    public void setCrlIndexFile(String crlIndexFile) {
+        this.crlIndexFile = crlIndexFile;
+    }
+
+    public int getCrlUpdateInterval() {
+        return crlUpdateInterval;
+    }
+
+    public void setCrlUpdateInterval(int crlUpdateInterval) {
+        this.crlUpdateInterval = crlUpdateInterval;
+    }
+
+    public RevocationChecker getRevocationChecker() {
+        return revocationChecker;
+    }
+
+    public int getValidationCacheSize() {
+        return validationCacheSize;
+    }
+
+    public void setValidationCacheSize(int validationCacheSize) {
+        this.validationCacheSize = validationCacheSize;
+    }
+
+    public int getValidationCacheTimeout() {
+        return validationCacheTimeout;
+    }
+
+    public void setValidationCacheTimeout(int validationCacheTimeout) {
+        this.validationCacheTimeout = validationCacheTimeout;
+    }
+
+    public int getValidationCacheNegativeTimeout() {
+        return validationCacheNegativeTimeout;
+    }
+
+    public void setValidationCacheNegativeTimeout(int validationCacheNegativeTimeout) {
+        this.validationCacheNegativeTimeout = validationCacheNegativeTimeout;
+    }
+
+    public ValidationCache getValidationCache() {
+        return validationCache;
+    }
+
+    public StartupProfile getStartupProfile() {
+        return startupProfile;
+    }
+
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    public void setSessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    public int getSessionCacheTimeout() {
+        return sessionCacheTimeout;
+    }
+
+    public void setSessionCacheTimeout(int sessionCacheTimeout) {
+        this.sessionCacheTimeout = sessionCacheTimeout;
+    }
+
+    public String getSessionCacheDirectory() {
+        return sessionCacheDirectory;
+    }
+
+    public void setSessionCacheDirectory(String sessionCacheDirectory) {
+        this.sessionCacheDirectory = sessionCacheDirectory;
+    }
+
+    public boolean getEnableSessionTickets() {
+        return enableSessionTickets;
+    }
+
+    public void setEnableSessionTickets(boolean enableSessionTickets) {
+        this.enableSessionTickets = enableSessionTickets;
+    }
+
     public void loadJSSConfig(String jssConf) throws IOException {
         File configFile = new File(jssConf);
         loadJSSConfig(configFile);
@@ -267,6 +774,38 @@ public class TomcatJSS implements SSLSocketListener {
         if (passwordFileProp != null)
             setPasswordFile(passwordFileProp);
 
+        String passwordCacheTimeoutProp = config.getProperty("passwordCacheTimeout");
+        if (StringUtils.isNotEmpty(passwordCacheTimeoutProp))
+            setPasswordCacheTimeout(Integer.parseInt(passwordCacheTimeoutProp));
+
+        String passwordTimeoutProp = config.getProperty("passwordTimeout");
+        if (StringUtils.isNotEmpty(passwordTimeoutProp))
+            setPasswordTimeout(Integer.parseInt(passwordTimeoutProp));
+
+        String loginTimeoutProp = config.getProperty("loginTimeout");
+        if (StringUtils.isNotEmpty(loginTimeoutProp))
+            setLoginTimeout(Integer.parseInt(loginTimeoutProp));
+
+        String loginRetriesProp = config.getProperty("loginRetries");
+        if (StringUtils.isNotEmpty(loginRetriesProp))
+            setLoginRetries(Integer.parseInt(loginRetriesProp));
+
+        String loginRetryDelayProp = config.getProperty("loginRetryDelay");
+        if (StringUtils.isNotEmpty(loginRetryDelayProp))
+            setLoginRetryDelay(Integer.parseInt(loginRetryDelayProp));
+
+        String tokenMonitorIntervalProp = config.getProperty("tokenMonitorInterval");
+        if (StringUtils.isNotEmpty(tokenMonitorIntervalProp))
+            setTokenMonitorInterval(Integer.parseInt(tokenMonitorIntervalProp));
+
+        String serverECCertNickFileProp = config.getProperty("serverECCertNickFile");
+        if (serverECCertNickFileProp != null)
+            setServerECCertNickFile(serverECCertNickFileProp);
+
+        String sniServerCertNicksProp = config.getProperty("sniServerCertNicks");
+        if (sniServerCertNicksProp != null)
+            setSniServerCertNicks(sniServerCertNicksProp);
+
         String enableOCSPProp = config.getProperty("enableOCSP");
         if (enableOCSPProp != null)
             setEnableOCSP(Boolean.parseBoolean(enableOCSPProp));
@@ -294,37 +833,133 @@ public class TomcatJSS implements SSLSocketListener {
         String ocspTimeoutProp = config.getProperty("ocspTimeout");
         if (StringUtils.isNotEmpty(ocspTimeoutProp))
             setOcspTimeout(Integer.parseInt(ocspTimeoutProp));
-    }
 
-    public void loadTomcatConfig(String serverXml)
-            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException {
-        File configFile = new File(serverXml);
-        loadTomcatConfig(configFile);
-    }
+        String ocspCacheDirectoryProp = config.getProperty("ocspCacheDirectory");
+        if (ocspCacheDirectoryProp != null)
+            setOcspCacheDirectory(ocspCacheDirectoryProp);
 
-    public void loadTomcatConfig(File configFile)
-            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException {
+        String asyncOCSPProp = config.getProperty("asyncOCSP");
+        if (asyncOCSPProp != null)
+            setAsyncOCSP(Boolean.parseBoolean(asyncOCSPProp));
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document document = builder.parse(configFile);
+        String ocspSoftFailProp = config.getProperty("ocspSoftFail");
+        if (ocspSoftFailProp != null)
+            setOcspSoftFail(Boolean.parseBoolean(ocspSoftFailProp));
 
-        loadTomcatConfig(document);
-    }
+        String ocspHandshakeTimeoutProp = config.getProperty("ocspHandshakeTimeout");
+        if (StringUtils.isNotEmpty(ocspHandshakeTimeoutProp))
+            setOcspHandshakeTimeout(Integer.parseInt(ocspHandshakeTimeoutProp));
 
-    public void loadTomcatConfig(Document document) throws XPathExpressionException {
+        String ocspFailureThresholdProp = config.getProperty("ocspFailureThreshold");
+        if (StringUtils.isNotEmpty(ocspFailureThresholdProp))
+            setOcspFailureThreshold(Integer.parseInt(ocspFailureThresholdProp));
 
-        XPathFactory xPathfactory = XPathFactory.newInstance();
-        XPath xpath = xPathfactory.newXPath();
+        String ocspRetryIntervalProp = config.getProperty("ocspRetryInterval");
+        if (StringUtils.isNotEmpty(ocspRetryIntervalProp))
+            setOcspRetryInterval(Integer.parseInt(ocspRetryIntervalProp));
 
-        Element connector = (Element) xpath.evaluate(
-                "/Server/Service[@name='Catalina']/Connector[@SSLEnabled='true']",
-                document, XPathConstants.NODE);
+        String enableOCSPStaplingProp = config.getProperty("enableOCSPStapling");
+        if (enableOCSPStaplingProp != null)
+            setEnableOCSPStapling(Boolean.parseBoolean(enableOCSPStaplingProp));
 
-        String certDbProp = connector.getAttribute("certdbDir");
-        if (certDbProp != null)
-            setCertdbDir(certDbProp);
+        String ocspStaplingResponderURLProp = config.getProperty("ocspStaplingResponderURL");
+        if (ocspStaplingResponderURLProp != null)
+            setOcspStaplingResponderURL(ocspStaplingResponderURLProp);
+
+        String ocspStaplingTimeoutProp = config.getProperty("ocspStaplingTimeout");
+        if (StringUtils.isNotEmpty(ocspStaplingTimeoutProp))
+            setOcspStaplingTimeout(Integer.parseInt(ocspStaplingTimeoutProp));
+
+        String crlDirectoryProp = config.getProperty("crlDirectory");
+        if (crlDirectoryProp != null)
+            setCrlDirectory(crlDirectoryProp);
+
+        String crlIndexFileProp = config.getProperty("crlIndexFile");
+        if (crlIndexFileProp != null)
+            setCrlIndexFile(crlIndexFileProp);
+
+        String crlUpdateIntervalProp = config.getProperty("crlUpdateInterval");
+        if (StringUtils.isNotEmpty(crlUpdateIntervalProp))
+            setCrlUpdateInterval(Integer.parseInt(crlUpdateIntervalProp));
+
+        String validationCacheSizeProp = config.getProperty("validationCacheSize");
+        if (StringUtils.isNotEmpty(validationCacheSizeProp))
+            setValidationCacheSize(Integer.parseInt(validationCacheSizeProp));
+
+        String validationCacheTimeoutProp = config.getProperty("validationCacheTimeout");
+        if (StringUtils.isNotEmpty(validationCacheTimeoutProp))
+            setValidationCacheTimeout(Integer.parseInt(validationCacheTimeoutProp));
+
+        String validationCacheNegativeTimeoutProp = config.getProperty("validationCacheNegativeTimeout");
+        if (StringUtils.isNotEmpty(validationCacheNegativeTimeoutProp))
+            setValidationCacheNegativeTimeout(Integer.parseInt(validationCacheNegativeTimeoutProp));
+
+        String sessionCacheSizeProp = config.getProperty("sessionCacheSize");
+        if (StringUtils.isNotEmpty(sessionCacheSizeProp))
+            setSessionCacheSize(Integer.parseInt(sessionCacheSizeProp));
+
+        String sessionCacheTimeoutProp = config.getProperty("sessionCacheTimeout");
+        if (StringUtils.isNotEmpty(sessionCacheTimeoutProp))
+            setSessionCacheTimeout(Integer.parseInt(sessionCacheTimeoutProp));
+
+        String sessionCacheDirectoryProp = config.getProperty("sessionCacheDirectory");
+        if (sessionCacheDirectoryProp != null)
+            setSessionCacheDirectory(sessionCacheDirectoryProp);
+
+        String enableSessionTicketsProp = config.getProperty("enableSessionTickets");
+        if (enableSessionTicketsProp != null)
+            setEnableSessionTickets(Boolean.parseBoolean(enableSessionTicketsProp));
+
+        String asyncSocketListenersProp = config.getProperty("asyncSocketListeners");
+        if (asyncSocketListenersProp != null)
+            setAsyncSocketListeners(Boolean.parseBoolean(asyncSocketListenersProp));
+
+        String socketListenerQueueSizeProp = config.getProperty("socketListenerQueueSize");
+        if (StringUtils.isNotEmpty(socketListenerQueueSizeProp))
+            setSocketListenerQueueSize(Integer.parseInt(socketListenerQueueSizeProp));
+
+        String enableMetricsProp = config.getProperty("enableMetrics");
+        if (enableMetricsProp != null)
+            setEnableMetrics(Boolean.parseBoolean(enableMetricsProp));
+
+        String enginePoolSizeProp = config.getProperty("enginePoolSize");
+        if (StringUtils.isNotEmpty(enginePoolSizeProp))
+            setEnginePoolSize(Integer.parseInt(enginePoolSizeProp));
+
+        String enableCertReloadProp = config.getProperty("enableCertReload");
+        if (enableCertReloadProp != null)
+            setEnableCertReload(Boolean.parseBoolean(enableCertReloadProp));
+    }
+
+    public void loadTomcatConfig(String serverXml)
+            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException {
+        File configFile = new File(serverXml);
+        loadTomcatConfig(configFile);
+    }
+
+    public void loadTomcatConfig(File configFile)
+            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException {
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document = builder.parse(configFile);
+
+        loadTomcatConfig(document);
+    }
+
+    public void loadTomcatConfig(Document document) throws XPathExpressionException {
+
+        XPathFactory xPathfactory = XPathFactory.newInstance();
+        XPath xpath = xPathfactory.newXPath();
+
+        Element connector = (Element) xpath.evaluate(
+                "/Server/Service[@name='Catalina']/Connector[@SSLEnabled='true']",
+                document, XPathConstants.NODE);
+
+        String certDbProp = connector.getAttribute("certdbDir");
+        if (certDbProp != null)
+            setCertdbDir(certDbProp);
 
         String passwordClassProp = connector.getAttribute("passwordClass");
         if (passwordClassProp != null)
@@ -334,10 +969,42 @@ public class TomcatJSS implements SSLSocketListener {
         if (passwordFileProp != null)
             setPasswordFile(passwordFileProp);
 
+        String passwordCacheTimeoutProp = connector.getAttribute("passwordCacheTimeout");
+        if (StringUtils.isNotEmpty(passwordCacheTimeoutProp))
+            setPasswordCacheTimeout(Integer.parseInt(passwordCacheTimeoutProp));
+
+        String passwordTimeoutProp = connector.getAttribute("passwordTimeout");
+        if (StringUtils.isNotEmpty(passwordTimeoutProp))
+            setPasswordTimeout(Integer.parseInt(passwordTimeoutProp));
+
+        String loginTimeoutProp = connector.getAttribute("loginTimeout");
+        if (StringUtils.isNotEmpty(loginTimeoutProp))
+            setLoginTimeout(Integer.parseInt(loginTimeoutProp));
+
+        String loginRetriesProp = connector.getAttribute("loginRetries");
+        if (StringUtils.isNotEmpty(loginRetriesProp))
+            setLoginRetries(Integer.parseInt(loginRetriesProp));
+
+        String loginRetryDelayProp = connector.getAttribute("loginRetryDelay");
+        if (StringUtils.isNotEmpty(loginRetryDelayProp))
+            setLoginRetryDelay(Integer.parseInt(loginRetryDelayProp));
+
+        String tokenMonitorIntervalProp = connector.getAttribute("tokenMonitorInterval");
+        if (StringUtils.isNotEmpty(tokenMonitorIntervalProp))
+            setTokenMonitorInterval(Integer.parseInt(tokenMonitorIntervalProp));
+
         String serverCertNickFileProp = connector.getAttribute("serverCertNickFile");
         if (serverCertNickFileProp != null)
             setServerCertNickFile(serverCertNickFileProp);
 
+        String serverECCertNickFileProp = connector.getAttribute("serverECCertNickFile");
+        if (serverECCertNickFileProp != null)
+            setServerECCertNickFile(serverECCertNickFileProp);
+
+        String sniServerCertNicksProp = connector.getAttribute("sniServerCertNicks");
+        if (sniServerCertNicksProp != null)
+            setSniServerCertNicks(sniServerCertNicksProp);
+
         String enableOCSPProp = connector.getAttribute("enableOCSP");
         if (enableOCSPProp != null)
             setEnableOCSP(Boolean.parseBoolean(enableOCSPProp));
@@ -365,6 +1032,102 @@ public class TomcatJSS implements SSLSocketListener {
         String ocspTimeoutProp = connector.getAttribute("ocspTimeout");
         if (StringUtils.isNotEmpty(ocspTimeoutProp))
             setOcspTimeout(Integer.parseInt(ocspTimeoutProp));
+
+        String ocspCacheDirectoryProp = connector.getAttribute("ocspCacheDirectory");
+        if (ocspCacheDirectoryProp != null)
+            setOcspCacheDirectory(ocspCacheDirectoryProp);
+
+        String asyncOCSPProp = connector.getAttribute("asyncOCSP");
+        if (StringUtils.isNotEmpty(asyncOCSPProp))
+            setAsyncOCSP(Boolean.parseBoolean(asyncOCSPProp));
+
+        String ocspSoftFailProp = connector.getAttribute("ocspSoftFail");
+        if (StringUtils.isNotEmpty(ocspSoftFailProp))
+            setOcspSoftFail(Boolean.parseBoolean(ocspSoftFailProp));
+
+        String ocspHandshakeTimeoutProp = connector.getAttribute("ocspHandshakeTimeout");
+        if (StringUtils.isNotEmpty(ocspHandshakeTimeoutProp))
+            setOcspHandshakeTimeout(Integer.parseInt(ocspHandshakeTimeoutProp));
+
+        String ocspFailureThresholdProp = connector.getAttribute("ocspFailureThreshold");
+        if (StringUtils.isNotEmpty(ocspFailureThresholdProp))
+            setOcspFailureThreshold(Integer.parseInt(ocspFailureThresholdProp));
+
+        String ocspRetryIntervalProp = connector.getAttribute("ocspRetryInterval");
+        if (StringUtils.isNotEmpty(ocspRetryIntervalProp))
+            setOcspRetryInterval(Integer.parseInt(ocspRetryIntervalProp));
+
+        String enableOCSPStaplingProp = connector.getAttribute("enableOCSPStapling");
+        if (StringUtils.isNotEmpty(enableOCSPStaplingProp))
+            setEnableOCSPStapling(Boolean.parseBoolean(enableOCSPStaplingProp));
+
+        String ocspStaplingResponderURLProp = connector.getAttribute("ocspStaplingResponderURL");
+        if (ocspStaplingResponderURLProp != null)
+            setOcspStaplingResponderURL(ocspStaplingResponderURLProp);
+
+        String ocspStaplingTimeoutProp = connector.getAttribute("ocspStaplingTimeout");
+        if (StringUtils.isNotEmpty(ocspStaplingTimeoutProp))
+            setOcspStaplingTimeout(Integer.parseInt(ocspStaplingTimeoutProp));
+
+        String crlDirectoryProp = connector.getAttribute("crlDirectory");
+        if (crlDirectoryProp != null)
+            setCrlDirectory(crlDirectoryProp);
+
+        String crlIndexFileProp = connector.getAttribute("crlIndexFile");
+        if (crlIndexFileProp != null)
+            setCrlIndexFile(crlIndexFileProp);
+
+        String crlUpdateIntervalProp = connector.getAttribute("crlUpdateInterval");
+        if (StringUtils.isNotEmpty(crlUpdateIntervalProp))
+            setCrlUpdateInterval(Integer.parseInt(crlUpdateIntervalProp));
+
+        String validationCacheSizeProp = connector.getAttribute("validationCacheSize");
+        if (StringUtils.isNotEmpty(validationCacheSizeProp))
+            setValidationCacheSize(Integer.parseInt(validationCacheSizeProp));
+
+        String validationCacheTimeoutProp = connector.getAttribute("validationCacheTimeout");
+        if (StringUtils.isNotEmpty(validationCacheTimeoutProp))
+            setValidationCacheTimeout(Integer.parseInt(validationCacheTimeoutProp));
+
+        String validationCacheNegativeTimeoutProp = connector.getAttribute("validationCacheNegativeTimeout");
+        if (StringUtils.isNotEmpty(validationCacheNegativeTimeoutProp))
+            setValidationCacheNegativeTimeout(Integer.parseInt(validationCacheNegativeTimeoutProp));
+
+        String sessionCacheSizeProp = connector.getAttribute("sessionCacheSize");
+        if (StringUtils.isNotEmpty(sessionCacheSizeProp))
+            setSessionCacheSize(Integer.parseInt(sessionCacheSizeProp));
+
+        String sessionCacheTimeoutProp = connector.getAttribute("sessionCacheTimeout");
+        if (StringUtils.isNotEmpty(sessionCacheTimeoutProp))
+            setSessionCacheTimeout(Integer.parseInt(sessionCacheTimeoutProp));
+
+        String sessionCacheDirectoryProp = connector.getAttribute("sessionCacheDirectory");
+        if (sessionCacheDirectoryProp != null)
+            setSessionCacheDirectory(sessionCacheDirectoryProp);
+
+        String enableSessionTicketsProp = connector.getAttribute("enableSessionTickets");
+        if (StringUtils.isNotEmpty(enableSessionTicketsProp))
+            setEnableSessionTickets(Boolean.parseBoolean(enableSessionTicketsProp));
+
+        String asyncSocketListenersProp = connector.getAttribute("asyncSocketListeners");
+        if (StringUtils.isNotEmpty(asyncSocketListenersProp))
+            setAsyncSocketListeners(Boolean.parseBoolean(asyncSocketListenersProp));
+
+        String socketListenerQueueSizeProp = connector.getAttribute("socketListenerQueueSize");
+        if (StringUtils.isNotEmpty(socketListenerQueueSizeProp))
+            setSocketListenerQueueSize(Integer.parseInt(socketListenerQueueSizeProp));
+
+        String enableMetricsProp = connector.getAttribute("enableMetrics");
+        if (StringUtils.isNotEmpty(enableMetricsProp))
+            setEnableMetrics(Boolean.parseBoolean(enableMetricsProp));
+
+        String enginePoolSizeProp = connector.getAttribute("enginePoolSize");
+        if (StringUtils.isNotEmpty(enginePoolSizeProp))
+            setEnginePoolSize(Integer.parseInt(enginePoolSizeProp));
+
+        String enableCertReloadProp = connector.getAttribute("enableCertReload");
+        if (StringUtils.isNotEmpty(enableCertReloadProp))
+            setEnableCertReload(Boolean.parseBoolean(enableCertReloadProp));
     }
 
     /**
@@ -379,6 +1142,8 @@ public class TomcatJSS implements SSLSocketListener {
         String jssConf = catalinaBase + "/conf/jss.conf";
         File configFile = new File(jssConf);
 
+        long start = startupProfile.start();
+
         if (configFile.exists()) {
             logger.info("TomcatJSS: Loading JSS configuration from {}", jssConf);
             loadJSSConfig(configFile);
@@ -388,6 +1153,8 @@ public class TomcatJSS implements SSLSocketListener {
             logger.info("TomcatJSS: Loading JSS configuration from {}", serverXml);
             loadTomcatConfig(serverXml);
         }
+
+        startupProfile.add("config", start);
     }
 
     public void init() throws KeyDatabaseException, CertDatabaseException, GeneralSecurityException,
@@ -429,25 +1196,61 @@ public class TomcatJSS implements SSLSocketListener {
         vals.removeSunProvider = false;
         vals.installJSSProvider = true;
 
+        // the passwords do not depend on NSS, so they are fetched
+        // while NSS opens the database
+        CompletableFuture<List<String>> passwordStoreFuture = initPasswordStore();
+
+        CryptoManagerInitEvent initEvent = new CryptoManagerInitEvent();
+        initEvent.certdbDir = certdbDir;
+        initEvent.begin();
+
+        long start = startupProfile.start();
+
         try {
             CryptoManager.initialize(vals);
 
         } catch (AlreadyInitializedException e) {
             logger.warn("TomcatJSS: {}", e, e);
+
+        } finally {
+            initEvent.commit();
+            startupProfile.add("nss", start);
         }
 
         manager = CryptoManager.getInstance();
 
-        passwordStore = (IPasswordStore) Class.forName(passwordClass).getDeclaredConstructor().newInstance();
-        passwordStore.init(passwordFile);
+        passwordTags = getPasswordTags(passwordStoreFuture);
 
+        start = startupProfile.start();
         login();
+        startupProfile.add("login", start);
 
-        if (StringUtils.isNotEmpty(serverCertNickFile)) {
-            serverCertNick = new String(Files.readAllBytes(Paths.get(serverCertNickFile))).trim();
-            logger.debug("serverCertNick: {}", serverCertNick);
+        logger.debug("tokenMonitorInterval: {}", tokenMonitorInterval);
+        if (tokenMonitorInterval > 0) {
+            tokenMonitor = new TokenMonitor(this, getTokenTags(), tokenMonitorInterval);
+            tokenMonitor.start();
+            try {
+                tokenMonitor.register();
+            } catch (JMException e) {
+                logger.warn("TomcatJSS: unable to register token monitor: {}", e.getMessage(), e);
+            }
+        }
+
+        start = startupProfile.start();
+
+        reloadServerCertNick();
+
+        if (StringUtils.isNotEmpty(serverECCertNickFile)) {
+            logger.debug("TomcatJSS: serverECCertNickFile: {}", serverECCertNickFile);
+            reloadServerECCertNick();
+            validateServerECCert();
         }
 
+        logger.debug("sniServerCertNicks: {}", sniServerCertNicks);
+        validateSNIServerCerts();
+
+        startupProfile.add("serverCerts", start);
+
         logger.debug("clientAuth: {}", clientAuth);
         if (clientAuth.equalsIgnoreCase("true")) {
             requireClientAuth = true;
@@ -464,32 +1267,433 @@ public class TomcatJSS implements SSLSocketListener {
         logger.debug("wantClientAuth: {}", wantClientAuth);
 
         if (requireClientAuth || wantClientAuth) {
+            start = startupProfile.start();
             configureOCSP();
+            configureCRL();
+            configureValidationCache();
+            startupProfile.add("revocation", start);
+        }
+
+        if (ocspConfig.get() != null) {
+            ocspManager = new OCSPManager(this);
+            try {
+                ocspManager.register();
+            } catch (JMException e) {
+                logger.warn("TomcatJSS: unable to register OCSP manager: {}", e.getMessage(), e);
+            }
+        }
+
+        start = startupProfile.start();
+        configureOCSPStapling();
+        configureSessionCache();
+        startupProfile.add("sslSettings", start);
+
+        logger.debug("asyncSocketListeners: {}", asyncSocketListeners);
+        if (asyncSocketListeners) {
+            logger.debug("socketListenerQueueSize: {}", socketListenerQueueSize);
+            socketListenerDispatcher = new SocketListenerDispatcher(socketListenerQueueSize);
+            socketListenerDispatcher.start();
         }
 
-        // 12 hours = 43200 seconds
-        SSLServerSocket.configServerSessionIDCache(0, 43200, 43200, null);
+        logger.debug("enableMetrics: {}", enableMetrics);
+        if (enableMetrics) {
+            metrics = new SSLMetrics();
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                logger.warn("TomcatJSS: unable to register SSL metrics: {}", e.getMessage(), e);
+            }
+        }
+
+        logger.debug("enginePoolSize: {}", enginePoolSize);
+        logger.debug("enableCertReload: {}", enableCertReload);
 
         logger.info("TomcatJSS: initialization complete");
 
         initialized = true;
+
+        startupProfile.complete();
+    }
+
+    /**
+     * Stops the background threads started by init(). NSS stays
+     * initialized and the tokens stay logged in, since NSS cannot be
+     * shut down while JSS is loaded.
+     */
+    public synchronized void shutdown() {
+
+        if (!initialized) {
+            return;
+        }
+
+        logger.info("TomcatJSS: shutting down");
+
+        if (tokenMonitor != null) {
+            tokenMonitor.stop();
+            try {
+                tokenMonitor.unregister();
+            } catch (JMException e) {
+                logger.warn("TomcatJSS: unable to unregister token monitor: {}", e.getMessage(), e);
+            }
+            tokenMonitor = null;
+        }
+
+        if (ocspManager != null) {
+            try {
+                ocspManager.unregister();
+            } catch (JMException e) {
+                logger.warn("TomcatJSS: unable to unregister OCSP manager: {}", e.getMessage(), e);
+            }
+            ocspManager = null;
+        }
+
+        if (metrics != null) {
+            try {
+                metrics.unregister();
+            } catch (JMException e) {
+                logger.warn("TomcatJSS: unable to unregister SSL metrics: {}", e.getMessage(), e);
+            }
+            metrics = null;
+        }
+
+        SocketListenerDispatcher dispatcher = socketListenerDispatcher;
+        if (dispatcher != null) {
+            socketListenerDispatcher = null;
+            dispatcher.stop();
+        }
+
+        if (asyncOCSPChecker != null) {
+            asyncOCSPChecker.shutdown();
+        }
+
+        if (crlChecker != null) {
+            crlChecker.stop();
+        }
+
+        // clears the cached passwords
+        if (asyncPasswordStore != null) {
+            asyncPasswordStore.close();
+        }
+
+        initialized = false;
     }
 
+    /**
+     * Creates the password store from passwordClass and starts loading
+     * it. The token passwords are fetched ahead of the login if they
+     * are cached.
+     */
+    CompletableFuture<List<String>> initPasswordStore() throws InstantiationException, IllegalAccessException,
+            InvocationTargetException, NoSuchMethodException, ClassNotFoundException {
+
+        Object store = Class.forName(passwordClass).getDeclaredConstructor().newInstance();
+
+        logger.debug("TomcatJSS: passwordTimeout: {}", passwordTimeout);
+
+        if (store instanceof UnixSocketPasswordStore) {
+            ((UnixSocketPasswordStore) store).setTimeout(passwordTimeout);
+        }
+
+        IAsyncPasswordStore provider;
+        if (store instanceof IAsyncPasswordStore) {
+            provider = (IAsyncPasswordStore) store;
+
+        } else {
+            passwordStore = (IPasswordStore) store;
+            provider = new AsyncPasswordStoreAdapter(passwordStore);
+        }
+
+        logger.debug("TomcatJSS: passwordCacheTimeout: {}", passwordCacheTimeout);
+        asyncPasswordStore = passwordCacheTimeout > 0
+                ? new CachingPasswordStore(provider, passwordCacheTimeout)
+                : provider;
+
+        if (store instanceof IAsyncPasswordStore) {
+            // keep getPasswordStore() usable by existing callers
+            passwordStore = new SyncPasswordStoreAdapter(asyncPasswordStore, passwordTimeout);
+        }
+
+        long start = startupProfile.start();
+
+        return asyncPasswordStore.init(passwordFile)
+                .thenCompose(v -> asyncPasswordStore.getTags())
+                .thenApply(tags -> {
+                    if (passwordCacheTimeout > 0) {
+                        for (String tag : getTokenTags(tags)) {
+                            // only fills the cache, so clear the copy returned here;
+                            // errors are reported again by the login
+                            asyncPasswordStore.getPassword(tag, 0).thenAccept(password -> {
+                                if (password != null) {
+                                    Arrays.fill(password, '\0');
+                                }
+                            });
+                        }
+                    }
+                    startupProfile.add("passwordStore", start);
+                    return tags;
+                });
+    }
+
+    /**
+     * Waits up to passwordTimeout for the password store loaded in the
+     * background by init().
+     */
+    List<String> getPasswordTags(CompletableFuture<List<String>> future) throws IOException {
+
+        try {
+            return future.get(passwordTimeout, TimeUnit.SECONDS);
+
+        } catch (TimeoutException e) {
+            throw new IOException("Unable to load " + passwordFile + " within " + passwordTimeout + " seconds");
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + passwordFile);
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IOException("Unable to load " + passwordFile + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Checks that the EC server certificate and its key are in the NSS
+     * database and that the key is an EC key, since the certificate is
+     * only offered to clients that negotiate an ECDSA cipher suite.
+     */
+    public void validateServerECCert() throws ConfigurationException {
+
+        if (StringUtils.isEmpty(serverECCertNick)) {
+            return;
+        }
+
+        String algorithm;
+        try {
+            org.mozilla.jss.crypto.X509Certificate cert = manager.findCertByNickname(serverECCertNick);
+            algorithm = manager.findPrivKeyByCert(cert).getAlgorithm();
+
+        } catch (Exception e) {
+            throw new ConfigurationException("Unable to find EC server certificate and key "
+                    + serverECCertNick + ": " + e.getMessage());
+        }
+
+        if (!"EC".equalsIgnoreCase(algorithm)) {
+            throw new ConfigurationException("Server certificate " + serverECCertNick
+                    + " does not have an EC key: " + algorithm);
+        }
+    }
+
+    /**
+     * Checks that the certificate and key of each SNI hostname are in the
+     * NSS database, so that a typo fails the startup instead of the
+     * handshakes for that hostname.
+     */
+    public void validateSNIServerCerts() throws ConfigurationException {
+
+        for (Map.Entry<String, String> entry : getSNIServerCertNickMap().entrySet()) {
+
+            String hostname = entry.getKey();
+            String nickname = entry.getValue();
+
+            logger.info("TomcatJSS: SNI hostname {}: {}", hostname, nickname);
+
+            try {
+                org.mozilla.jss.crypto.X509Certificate cert = manager.findCertByNickname(nickname);
+                manager.findPrivKeyByCert(cert);
+
+            } catch (Exception e) {
+                throw new ConfigurationException("Unable to find certificate and key "
+                        + nickname + " for " + hostname + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Logs into all tokens in the password store at the same time, so
+     * that slow HSM logins do not add up. The logins must complete
+     * within loginTimeout seconds. A token error is retried loginRetries
+     * times with exponential backoff. The time taken by each token is
+     * logged when all logins are done.
+     *
+     * @throws TokenException if a login failed after all retries or
+     *         did not complete in time
+     */
     public void login() throws NoSuchTokenException, TokenException {
 
         logger.debug("TomcatJSS: logging into tokens");
 
-        Enumeration<String> tags = passwordStore.getTags();
+        List<String> tags = getTokenTags();
+
+        if (tags.isEmpty()) {
+            return;
+        }
+
+        logger.debug("TomcatJSS: loginTimeout: {}", loginTimeout);
+        logger.debug("TomcatJSS: loginRetries: {}", loginRetries);
+        logger.debug("TomcatJSS: loginRetryDelay: {}", loginRetryDelay);
+
+        // one thread per token, a login blocks in the PKCS #11 module
+        ExecutorService executor = Executors.newFixedThreadPool(tags.size(), r -> {
+            Thread thread = new Thread(r, "TomcatJSS-Login");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<TokenLoginResult, Future<?>> futures = new LinkedHashMap<>();
+        long start = System.currentTimeMillis();
+
+        try {
+            for (String tag : tags) {
+                TokenLoginResult result = new TokenLoginResult(tag);
+                futures.put(result, executor.submit(() -> {
+                    loginWithRetries(result);
+                    return null;
+                }));
+            }
+
+            long deadline = loginTimeout > 0 ? start + loginTimeout * 1000L : Long.MAX_VALUE;
+
+            for (Map.Entry<TokenLoginResult, Future<?>> entry : futures.entrySet()) {
+
+                TokenLoginResult result = entry.getKey();
+                Future<?> future = entry.getValue();
+
+                try {
+                    if (deadline == Long.MAX_VALUE) {
+                        future.get();
+                    } else {
+                        future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    }
+
+                } catch (TimeoutException ex) {
+                    // The login cannot be interrupted, its thread is left running
+                    // but can no longer change the result.
+                    result.complete(
+                            TokenLoginResult.Status.TIMED_OUT,
+                            System.currentTimeMillis() - start,
+                            new TokenException("Login did not complete in " + loginTimeout + " seconds"));
+
+                } catch (ExecutionException ex) {
+                    // normally already completed by the login thread
+                    result.complete(
+                            TokenLoginResult.Status.FAILED,
+                            System.currentTimeMillis() - start,
+                            ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex);
+
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new TokenException("Interrupted while logging into " + result.getTag());
+                }
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        loginResults = Collections.unmodifiableList(new ArrayList<>(futures.keySet()));
+
+        logger.info("TomcatJSS: token logins completed in {} ms", System.currentTimeMillis() - start);
+        for (TokenLoginResult result : loginResults) {
+            logger.info("TomcatJSS: - {}", result);
+        }
+
+        for (TokenLoginResult result : loginResults) {
+
+            Exception error = result.getError();
+            if (error == null) {
+                continue;
+            }
+
+            if (error instanceof NoSuchTokenException) {
+                throw (NoSuchTokenException) error;
+            }
+
+            if (error instanceof TokenException) {
+                throw (TokenException) error;
+            }
+
+            throw new TokenException("Unable to log into " + result.getTag() + ": " + error.getMessage());
+        }
+    }
+
+    /**
+     * Returns the tags of the tokens in the password store.
+     */
+    public List<String> getTokenTags() {
+        return getTokenTags(passwordTags);
+    }
+
+    static List<String> getTokenTags(List<String> passwordTags) {
 
-        while (tags.hasMoreElements()) {
+        List<String> tags = new ArrayList<>();
 
-            String tag = tags.nextElement();
+        for (String tag : passwordTags) {
             if (!tag.equals("internal") && !tag.startsWith("hardware-")) {
                 continue;
             }
 
-            login(tag);
+            tags.add(tag);
         }
+
+        return tags;
+    }
+
+    /**
+     * Logs into a token and retries on token errors, waiting twice as
+     * long before each retry. Incorrect passwords are handled by
+     * login(String) and are not retried here.
+     */
+    void loginWithRetries(TokenLoginResult result) throws Exception {
+
+        String tag = result.getTag();
+        long start = System.currentTimeMillis();
+        long delay = loginRetryDelay * 1000L;
+        int retries = 0;
+
+        TokenLoginResult.Status status;
+
+        try {
+            while (true) {
+                try {
+                    login(tag);
+                    break;
+
+                } catch (NoSuchTokenException e) {
+                    throw e;
+
+                } catch (TokenException e) {
+                    if (retries >= loginRetries) {
+                        throw e;
+                    }
+
+                    result.setRetries(++retries);
+                    logger.warn("TomcatJSS: unable to log into {}, retrying in {} ms: {}", tag, delay, e.getMessage());
+
+                    Thread.sleep(delay);
+                    delay *= 2;
+                }
+            }
+
+            status = getToken(tag).isLoggedIn()
+                    ? TokenLoginResult.Status.LOGGED_IN
+                    : TokenLoginResult.Status.NOT_LOGGED_IN;
+
+        } catch (Exception e) {
+            result.complete(TokenLoginResult.Status.FAILED, System.currentTimeMillis() - start, e);
+            throw e;
+        }
+
+        // ignored if the login has already timed out
+        result.complete(status, System.currentTimeMillis() - start, null);
     }
 
     public void login(String tag) throws NoSuchTokenException, TokenException {
@@ -503,30 +1707,72 @@ public class TomcatJSS implements SSLSocketListener {
 
         logger.debug("TomcatJSS: logging into {}", tag);
 
-        int iteration = 0;
-        do {
-            String strPassword = passwordStore.getPassword(tag, iteration);
+        TokenLoginEvent loginEvent = new TokenLoginEvent();
+        loginEvent.tag = tag;
+        loginEvent.begin();
 
-            if (strPassword == null) {
-                logger.debug("TomcatJSS: no password for {}", tag);
-                return;
-            }
-
-            Password password = new Password(strPassword.toCharArray());
+        try {
+            int iteration = 0;
+            do {
+                char[] chars = getPassword(tag, iteration);
+
+                if (chars == null) {
+                    logger.debug("TomcatJSS: no password for {}", tag);
+                    return;
+                }
+
+                // cleared with the Password below
+                Password password = new Password(chars);
+                loginEvent.attempts = iteration + 1;
+
+                try {
+                    token.login(password);
+                    loginEvent.loggedIn = true;
+                    return; //NOSONAR - Not a redundant return, break will print the final error message even on success.
+                } catch (IncorrectPasswordException e) {
+                    logger.warn("TomcatJSS: incorrect password");
+                    iteration ++;
+                } finally {
+                    password.clear();
+                }
+
+            } while (iteration < MAX_LOGIN_ATTEMPTS);
+
+            logger.error("TomcatJSS: failed to log into {}", tag);
+
+        } finally {
+            loginEvent.commit();
+        }
+    }
 
-            try {
-                token.login(password);
-                return; //NOSONAR - Not a redundant return, break will print the final error message even on success.
-            } catch (IncorrectPasswordException e) {
-                logger.warn("TomcatJSS: incorrect password");
-                iteration ++;
-            } finally {
-                password.clear();
-            }
+    /**
+     * Gets a password from the password store. A password that cannot be
+     * fetched within passwordTimeout (e.g. the secrets agent is not
+     * running) is reported as a token error so that the login is retried.
+     */
+    char[] getPassword(String tag, int iteration) throws TokenException {
 
-        } while (iteration < MAX_LOGIN_ATTEMPTS);
+        CompletableFuture<char[]> future = asyncPasswordStore.getPassword(tag, iteration);
 
-        logger.error("TomcatJSS: failed to log into {}", tag);
+        try {
+            return future.get(passwordTimeout, TimeUnit.SECONDS);
+
+        } catch (TimeoutException e) {
+            // clear the password if it arrives later
+            future.thenAccept(password -> {
+                if (password != null) {
+                    Arrays.fill(password, '\0');
+                }
+            });
+            throw new TokenException("Unable to get password for " + tag + " within " + passwordTimeout + " seconds");
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TokenException("Interrupted while getting password for " + tag);
+
+        } catch (ExecutionException e) {
+            throw new TokenException("Unable to get password for " + tag + ": " + e.getCause().getMessage());
+        }
     }
 
     public CryptoToken getToken(String tag) throws NoSuchTokenException {
@@ -548,7 +1794,20 @@ public class TomcatJSS implements SSLSocketListener {
 
         logger.info("configuring OCSP");
 
+        OCSPConfigurationEvent ocspEvent = new OCSPConfigurationEvent();
+        ocspEvent.begin();
+
+        try {
+            configureOCSP(ocspEvent);
+        } finally {
+            ocspEvent.commit();
+        }
+    }
+
+    void configureOCSP(OCSPConfigurationEvent ocspEvent) throws GeneralSecurityException, ConfigurationException {
+
         logger.debug("enableOCSP: {}", enableOCSP);
+        ocspEvent.enabled = enableOCSP;
         if (!enableOCSP) {
             return;
         }
@@ -574,6 +1833,25 @@ public class TomcatJSS implements SSLSocketListener {
             throw new ConfigurationException("Missing OCSP responder certificate nickname");
         }
 
+        ocspEvent.responderURL = ocspResponderURL;
+
+        ocspConfig.set(new OCSPConfig(
+                ocspResponderURL,
+                ocspResponderCertNickname,
+                ocspCacheSize,
+                ocspMinCacheEntryDuration,
+                ocspMaxCacheEntryDuration,
+                ocspTimeout));
+
+        logger.debug("ocspCacheDirectory: {}", ocspCacheDirectory);
+        logger.debug("asyncOCSP: {}", asyncOCSP);
+        if (StringUtils.isNotEmpty(ocspCacheDirectory) || asyncOCSP) {
+            configureOCSPChecker();
+            ocspEvent.cacheSize = ocspCacheSize;
+            ocspEvent.timeout = ocspTimeout;
+            return;
+        }
+
         manager.configureOCSP(
                 true,
                 ocspResponderURL,
@@ -590,24 +1868,365 @@ public class TomcatJSS implements SSLSocketListener {
         logger.debug("ocspTimeout: {}", ocspTimeout);
 
         manager.setOCSPTimeout(ocspTimeout);
+
+        ocspEvent.cacheSize = ocspCacheSize;
+        ocspEvent.timeout = ocspTimeout;
+    }
+
+    /**
+     * Sets up OCSP checking in tomcatjss, with a persistent response cache
+     * and/or asynchronous responder requests. NSS OCSP checking is not
+     * enabled in this case so that each certificate is only checked once.
+     */
+    void configureOCSPChecker() throws ConfigurationException {
+
+        logger.info("TomcatJSS: checking OCSP in tomcatjss");
+
+        X509Certificate responderCert = null;
+        if (ocspResponderCertNickname != null) {
+            try {
+                responderCert = (X509Certificate) manager.findCertByNickname(ocspResponderCertNickname);
+            } catch (Exception e) {
+                throw new ConfigurationException("Unable to find OCSP responder certificate "
+                        + ocspResponderCertNickname + ": " + e.getMessage());
+            }
+        }
+
+        OCSPResponseCache cache = new OCSPResponseCache(
+                StringUtils.isEmpty(ocspCacheDirectory) ? null : Paths.get(ocspCacheDirectory),
+                ocspCacheSize,
+                ocspMinCacheEntryDuration,
+                ocspMaxCacheEntryDuration);
+
+        try {
+            cache.load();
+        } catch (IOException e) {
+            throw new ConfigurationException("Unable to load OCSP cache: " + e.getMessage());
+        }
+
+        OCSPClient client = new OCSPClient(ocspTimeout);
+        ocspChecker = new OCSPChecker(client, cache, ocspResponderURL, responderCert);
+
+        if (!asyncOCSP) {
+            revocationChecker = ocspChecker;
+            return;
+        }
+
+        logger.debug("ocspSoftFail: {}", ocspSoftFail);
+        logger.debug("ocspHandshakeTimeout: {}", ocspHandshakeTimeout);
+        logger.debug("ocspFailureThreshold: {}", ocspFailureThreshold);
+        logger.debug("ocspRetryInterval: {}", ocspRetryInterval);
+
+        asyncOCSPChecker = new AsyncOCSPChecker(
+                ocspChecker,
+                ocspSoftFail,
+                ocspHandshakeTimeout,
+                ocspFailureThreshold,
+                ocspRetryInterval);
+
+        revocationChecker = asyncOCSPChecker;
+    }
+
+    /**
+     * Applies new OCSP settings while the server is running, either to
+     * NSS or to the OCSP checker in tomcatjss. The settings are validated
+     * and the responder certificate is looked up before anything changes.
+     *
+     * Cached validation results are cleared if the responder changes.
+     */
+    public synchronized void reconfigureOCSP(OCSPConfig config)
+            throws GeneralSecurityException, ConfigurationException {
+
+        OCSPConfig previous = ocspConfig.get();
+        if (previous == null) {
+            throw new ConfigurationException("OCSP is not enabled");
+        }
+
+        config.validate();
+
+        logger.info("TomcatJSS: reconfiguring OCSP: {}", config);
+
+        OCSPConfigurationEvent ocspEvent = new OCSPConfigurationEvent();
+        ocspEvent.enabled = true;
+        ocspEvent.responderURL = config.getResponderURL();
+        ocspEvent.cacheSize = config.getCacheSize();
+        ocspEvent.timeout = config.getTimeout();
+        ocspEvent.begin();
+
+        try {
+            if (ocspChecker == null) {
+                manager.configureOCSP(
+                        true,
+                        config.getResponderURL(),
+                        config.getResponderCertNickname());
+
+                manager.OCSPCacheSettings(
+                        config.getCacheSize(),
+                        config.getMinCacheEntryDuration(),
+                        config.getMaxCacheEntryDuration());
+
+                manager.setOCSPTimeout(config.getTimeout());
+
+            } else {
+                X509Certificate responderCert = null;
+                if (config.getResponderCertNickname() != null) {
+                    try {
+                        responderCert = (X509Certificate) manager.findCertByNickname(
+                                config.getResponderCertNickname());
+                    } catch (Exception e) {
+                        throw new ConfigurationException("Unable to find OCSP responder certificate "
+                                + config.getResponderCertNickname() + ": " + e.getMessage());
+                    }
+                }
+
+                ocspChecker.getClient().setTimeout(config.getTimeout());
+                ocspChecker.getCache().setLimits(
+                        config.getCacheSize(),
+                        config.getMinCacheEntryDuration(),
+                        config.getMaxCacheEntryDuration());
+                ocspChecker.setResponder(config.getResponderURL(), responderCert);
+            }
+
+            ocspConfig.set(config);
+
+        } finally {
+            ocspEvent.commit();
+        }
+
+        if (validationCache != null && !config.hasSameResponder(previous)) {
+            validationCache.clear();
+        }
+    }
+
+    /**
+     * Sets up CRL checking in tomcatjss from the CRLs in crlDirectory.
+     * If OCSP is also checked in tomcatjss, a certificate must pass both
+     * checks; the CRL check is done first since it is local.
+     */
+    public void configureCRL() throws ConfigurationException {
+
+        logger.debug("crlDirectory: {}", crlDirectory);
+        if (StringUtils.isEmpty(crlDirectory)) {
+            return;
+        }
+
+        logger.info("TomcatJSS: checking CRLs in tomcatjss");
+
+        logger.debug("crlIndexFile: {}", crlIndexFile);
+        logger.debug("crlUpdateInterval: {}", crlUpdateInterval);
+
+        crlChecker = new CRLChecker(
+                Paths.get(crlDirectory),
+                StringUtils.isEmpty(crlIndexFile) ? null : Paths.get(crlIndexFile),
+                crlUpdateInterval);
+
+        try {
+            crlChecker.start();
+        } catch (IOException e) {
+            throw new ConfigurationException("Unable to load CRLs from " + crlDirectory + ": " + e.getMessage());
+        }
+
+        RevocationChecker ocspChecker = revocationChecker;
+
+        if (ocspChecker == null) {
+            revocationChecker = crlChecker;
+            return;
+        }
+
+        revocationChecker = new CompositeRevocationChecker(crlChecker, ocspChecker);
+    }
+
+    public void configureValidationCache() {
+
+        logger.debug("validationCacheSize: {}", validationCacheSize);
+        if (validationCacheSize <= 0) {
+            return;
+        }
+
+        logger.debug("validationCacheTimeout: {}", validationCacheTimeout);
+        logger.debug("validationCacheNegativeTimeout: {}", validationCacheNegativeTimeout);
+
+        validationCache = new ValidationCache(
+                validationCacheSize,
+                validationCacheTimeout,
+                validationCacheNegativeTimeout,
+                revocationChecker);
+    }
+
+    /**
+     * Enables OCSP stapling for the server certificate.
+     *
+     * NSS can staple OCSP responses but JSSEngine does not expose that,
+     * so stapling is only available with the SunJSSE engine (i.e. when
+     * the JSS engine is disabled). SunJSSE fetches the response for the
+     * server certificate, caches it until nextUpdate or ocspMaxCacheEntryDuration,
+     * and sends the handshake without a stapled response if the
+     * responder does not answer within ocspStaplingTimeout. That is kept
+     * separate from ocspTimeout because it delays every handshake that
+     * needs a new response, not only client certificate checks.
+     *
+     * The properties are read when the SunJSSE contexts are created,
+     * which happens after this is called from init().
+     *
+     * SunJSSE only reads these settings from the jdk.tls.* system
+     * properties, so they apply to the whole JVM: every SunJSSE server
+     * context created afterwards (e.g. by other connectors or by web
+     * applications) staples OCSP responses with the same settings.
+     * Properties set on the command line are not overridden.
+     */
+    public void configureOCSPStapling() {
+
+        logger.debug("enableOCSPStapling: {}", enableOCSPStapling);
+        if (!enableOCSPStapling) {
+            return;
+        }
+
+        if (JSSProvider.ENABLE_JSSENGINE) {
+            logger.warn("TomcatJSS: OCSP stapling is not supported by the JSS engine, "
+                    + "disable the JSS engine to use OCSP stapling");
+            return;
+        }
+
+        logger.info("TomcatJSS: enabling OCSP stapling");
+
+        logger.debug("ocspStaplingTimeout: {}", ocspStaplingTimeout);
+        setStaplingProperty("jdk.tls.server.enableStatusRequestExtension", "true");
+        setStaplingProperty("jdk.tls.stapling.responseTimeout", Integer.toString(ocspStaplingTimeout * 1000));
+        setStaplingProperty("jdk.tls.stapling.cacheSize", Integer.toString(getOcspCacheSize()));
+        setStaplingProperty("jdk.tls.stapling.cacheLifetime", Integer.toString(getOcspMaxCacheEntryDuration()));
+
+        logger.debug("ocspStaplingResponderURL: {}", ocspStaplingResponderURL);
+        if (StringUtils.isNotEmpty(ocspStaplingResponderURL)) {
+            setStaplingProperty("jdk.tls.stapling.responderURI", ocspStaplingResponderURL);
+            setStaplingProperty("jdk.tls.stapling.responderOverride", "true");
+        }
+    }
+
+    void setStaplingProperty(String name, String value) {
+
+        String current = System.getProperty(name);
+        if (current != null) {
+            logger.info("TomcatJSS: keeping JVM-wide {}={}", name, current);
+            return;
+        }
+
+        logger.info("TomcatJSS: setting JVM-wide {}={}", name, value);
+        System.setProperty(name, value);
+    }
+
+    public void configureSessionCache() throws SocketException {
+
+        logger.info("configuring session cache");
+
+        logger.debug("sessionCacheSize: {}", sessionCacheSize);
+        logger.debug("sessionCacheTimeout: {}", sessionCacheTimeout);
+
+        if (StringUtils.isEmpty(sessionCacheDirectory)) {
+            sessionCacheDirectory = null;
+        }
+
+        logger.debug("sessionCacheDirectory: {}", sessionCacheDirectory);
+
+        // NSS no longer supports SSL2, so the same timeout is used for both
+        SSLServerSocket.configServerSessionIDCache(
+                sessionCacheSize,
+                sessionCacheTimeout,
+                sessionCacheTimeout,
+                sessionCacheDirectory);
+
+        logger.debug("enableSessionTickets: {}", enableSessionTickets);
+
+        // Session tickets let clients resume without a server-side
+        // cache entry. The ticket keys are generated by NSS.
+        SSLSocket.enableSessionTicketsDefault(enableSessionTickets);
+    }
+
+    /**
+     * Called when a new engine is created for an incoming connection.
+     */
+    public void handshakeStarted(Object source) {
+        if (metrics != null) {
+            metrics.handshakeStarted(source);
+        }
+
+        SSLHandshakeEvent handshakeEvent = new SSLHandshakeEvent();
+        if (handshakeEvent.isEnabled()) {
+            handshakeEvent.begin();
+            handshakeEvents.put(source, handshakeEvent);
+        }
     }
 
     @Override
     public void alertReceived(SSLAlertEvent event) {
-        for (SSLSocketListener listener : socketListeners) {
-            listener.alertReceived(event);
+        if (metrics != null) {
+            metrics.alertReceived(event);
         }
+        SocketListenerDispatcher dispatcher = socketListenerDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(() -> fireAlertReceived(event));
+            return;
+        }
+        fireAlertReceived(event);
     }
 
     @Override
     public void alertSent(SSLAlertEvent event) {
-        for (SSLSocketListener listener : socketListeners) {
-            listener.alertSent(event);
+        if (metrics != null) {
+            metrics.alertSent(event);
+        }
+        SocketListenerDispatcher dispatcher = socketListenerDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(() -> fireAlertSent(event));
+            return;
         }
+        fireAlertSent(event);
     }
 
     @Override
     public void handshakeCompleted(SSLHandshakeCompletedEvent event) {
+        // metrics are updated on the handshake thread so that the
+        // measured handshake time does not include queueing delays
+        if (metrics != null) {
+            metrics.handshakeCompleted(event);
+        }
+
+        startupProfile.handshakeCompleted();
+
+        SSLHandshakeEvent handshakeEvent = handshakeEvents.remove(event.getSource());
+        if (handshakeEvent != null) {
+            handshakeEvent.end();
+            if (handshakeEvent.shouldCommit()) {
+                if (event.getSource() instanceof SSLEngine) {
+                    SSLEngine engine = (SSLEngine) event.getSource();
+                    SSLSession session = engine.getSession();
+                    handshakeEvent.protocol = session.getProtocol();
+                    handshakeEvent.cipherSuite = session.getCipherSuite();
+                    handshakeEvent.peerHost = session.getPeerHost();
+                }
+                handshakeEvent.commit();
+            }
+        }
+        SocketListenerDispatcher dispatcher = socketListenerDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(() -> fireHandshakeCompleted(event));
+            return;
+        }
+        fireHandshakeCompleted(event);
+    }
+
+    void fireAlertReceived(SSLAlertEvent event) {
+        for (SSLSocketListener listener : socketListeners) {
+            listener.alertReceived(event);
+        }
+    }
+
+    void fireAlertSent(SSLAlertEvent event) {
+        for (SSLSocketListener listener : socketListeners) {
+            listener.alertSent(event);
+        }
+    }
+
+    void fireHandshakeCompleted(SSLHandshakeCompletedEvent event) {
         for (SSLSocketListener listener : socketListeners) {
             listener.handshakeCompleted(event);
         }
@@ -0,0 +1,304 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gets the token passwords from a local secrets agent listening on the
+ * Unix domain socket configured in passwordFile.
+ *
+ * Each request is sent on a new connection as one UTF-8 line, and the
+ * agent closes the connection after its response:
+ *
+ * <pre>
+ * TAGS          OK, then one tag per line
+ * GET tag       OK, then the password on the next line
+ * </pre>
+ *
+ * The agent responds NOT_FOUND if it has no password for the tag, or
+ * ERROR followed by a message if the request failed. A request fails if
+ * the agent does not accept it and respond within the timeout.
+ */
+public class UnixSocketPasswordStore implements IAsyncPasswordStore {
+
+    public static final Logger logger = LoggerFactory.getLogger(UnixSocketPasswordStore.class);
+
+    static final int THREADS = 2;
+    static final int MAX_RESPONSE_SIZE = 64 * 1024; // bytes
+
+    private Path socket;
+    private volatile int timeout = 30; // seconds
+
+    private final ExecutorService executor;
+
+    public UnixSocketPasswordStore() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread thread = new Thread(r, "TomcatJSS-PasswordAgent-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param timeout seconds to wait for the agent to respond to a request
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public CompletableFuture<Void> init(String pwdPath) {
+
+        logger.debug("UnixSocketPasswordStore: socket: {}", pwdPath);
+        socket = Paths.get(pwdPath);
+
+        if (!Files.exists(socket)) {
+            return CompletableFuture.failedFuture(new IOException("Missing password agent socket: " + socket));
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getTags() {
+        return submit(() -> {
+
+            byte[] response = send("TAGS");
+            try {
+                List<String> tags = new ArrayList<>();
+                for (String line : new String(response, StandardCharsets.UTF_8).split("\n")) {
+                    if (!line.isEmpty()) {
+                        tags.add(line);
+                    }
+                }
+                return tags;
+
+            } finally {
+                Arrays.fill(response, (byte) 0);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<char[]> getPassword(String tag, int iteration) {
+
+        if (tag.indexOf('\n') >= 0) {
+            return CompletableFuture.failedFuture(new IOException("Invalid tag: " + tag));
+        }
+
+        // the agent has one password per tag, so every iteration gets the same password
+        return submit(() -> {
+
+            byte[] response = send("GET " + tag);
+            if (response == null) {
+                return null;
+            }
+
+            CharBuffer buffer = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(response));
+            try {
+                int length = buffer.remaining();
+                if (length > 0 && buffer.get(buffer.limit() - 1) == '\n') {
+                    length--;
+                }
+
+                char[] password = new char[length];
+                buffer.get(password);
+                return password;
+
+            } finally {
+                Arrays.fill(response, (byte) 0);
+                if (buffer.hasArray()) {
+                    Arrays.fill(buffer.array(), '\0');
+                }
+            }
+        });
+    }
+
+    interface Request<T> {
+        T call() throws IOException;
+    }
+
+    <T> CompletableFuture<T> submit(Request<T> request) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        executor.execute(() -> {
+            try {
+                future.complete(request.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Sends a request to the agent and returns the response after the
+     * status line, or null if the agent responded NOT_FOUND.
+     */
+    byte[] send(String request) throws IOException {
+
+        byte[] response = read(request);
+
+        int index = 0;
+        while (index < response.length && response[index] != '\n') {
+            index++;
+        }
+
+        String status = new String(response, 0, index, StandardCharsets.UTF_8);
+        int offset = Math.min(index + 1, response.length);
+
+        try {
+            if (status.equals("OK")) {
+                return Arrays.copyOfRange(response, offset, response.length);
+            }
+
+            if (status.equals("NOT_FOUND")) {
+                return null;
+            }
+
+            if (status.startsWith("ERROR")) {
+                throw new IOException("Password agent error: " + status.substring(5).trim());
+            }
+
+            throw new IOException("Invalid password agent response");
+
+        } finally {
+            Arrays.fill(response, (byte) 0);
+        }
+    }
+
+    byte[] read(String request) throws IOException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+        // non-blocking so that a stuck agent cannot hold the request forever
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+                Selector selector = Selector.open()) {
+
+            channel.configureBlocking(false);
+            SelectionKey key = channel.register(selector, 0);
+
+            if (!channel.connect(UnixDomainSocketAddress.of(socket))) {
+                await(key, SelectionKey.OP_CONNECT, deadline);
+                channel.finishConnect();
+            }
+
+            ByteBuffer out = ByteBuffer.wrap((request + "\n").getBytes(StandardCharsets.UTF_8));
+            while (out.hasRemaining()) {
+                if (channel.write(out) == 0) {
+                    await(key, SelectionKey.OP_WRITE, deadline);
+                }
+            }
+            channel.shutdownOutput();
+
+            // read into an array that can be cleared, the response contains the password
+            byte[] buffer = new byte[4096];
+            int size = 0;
+
+            try {
+                int count;
+                while ((count = channel.read(ByteBuffer.wrap(buffer, size, buffer.length - size))) >= 0) {
+
+                    if (count == 0) {
+                        await(key, SelectionKey.OP_READ, deadline);
+                        continue;
+                    }
+
+                    size += count;
+                    if (size < buffer.length) {
+                        continue;
+                    }
+
+                    if (buffer.length >= MAX_RESPONSE_SIZE) {
+                        throw new IOException("Password agent response too large");
+                    }
+
+                    byte[] larger = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_RESPONSE_SIZE));
+                    Arrays.fill(buffer, (byte) 0);
+                    buffer = larger;
+                }
+
+                return Arrays.copyOf(buffer, size);
+
+            } finally {
+                Arrays.fill(buffer, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Waits until the channel is ready for the operation.
+     *
+     * @throws SocketTimeoutException if the deadline passes first
+     */
+    void await(SelectionKey key, int ops, long deadline) throws IOException {
+
+        key.interestOps(ops);
+        Selector selector = key.selector();
+
+        while (true) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw new SocketTimeoutException("Password agent did not respond within " + timeout + " seconds");
+            }
+
+            if (selector.select(remaining) > 0) {
+                selector.selectedKeys().clear();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,195 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.apache.tomcat.util.net.jss;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.X509TrustManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of client certificate chain validation results keyed by the
+ * SHA-256 hash of the chain.
+ *
+ * A valid chain is cached until the timeout passes, a certificate in
+ * the chain expires, or the revocation data used to check it (OCSP
+ * response or CRL) expires, whichever comes first. With NSS OCSP the
+ * revocation data is not visible here, so only the timeout applies.
+ *
+ * A rejected chain is cached for the negative timeout so that clients
+ * that keep retrying with a bad certificate are rejected without
+ * validating the chain again.
+ */
+public class ValidationCache {
+
+    public static final Logger logger = LoggerFactory.getLogger(ValidationCache.class);
+
+    static final class Entry {
+
+        final long expires; // milliseconds since epoch
+        final CertificateException error; // null if the chain is valid
+
+        Entry(long expires, CertificateException error) {
+            this.expires = expires;
+            this.error = error;
+        }
+    }
+
+    private final long timeout; // milliseconds
+    private final long negativeTimeout; // milliseconds
+    private final RevocationChecker revocationChecker;
+
+    private final ExpiringMap<Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize maximum number of entries
+     * @param timeout seconds a valid chain is cached
+     * @param negativeTimeout seconds a rejected chain is cached, 0 to disable
+     * @param revocationChecker revocation check done by tomcatjss, or null
+     */
+    public ValidationCache(int maxSize, int timeout, int negativeTimeout, RevocationChecker revocationChecker) {
+        this.entries = new ExpiringMap<>(maxSize, null);
+        this.timeout = timeout * 1000L;
+        this.negativeTimeout = negativeTimeout * 1000L;
+        this.revocationChecker = revocationChecker;
+    }
+
+    /**
+     * Validates a client certificate chain with the delegate unless the
+     * result is in the cache.
+     */
+    public void checkClientTrusted(X509TrustManager delegate, X509Certificate[] chain, String authType)
+            throws CertificateException {
+
+        String key = getKey(chain, authType);
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(key, now);
+        if (entry != null) {
+            if (entry.error == null) {
+                hits.increment();
+                return;
+            }
+            negativeHits.increment();
+            throw new CertificateException(entry.error.getMessage(), entry.error);
+        }
+
+        misses.increment();
+
+        try {
+            delegate.checkClientTrusted(chain, authType);
+
+        } catch (CertificateException e) {
+            // an unreachable responder is not a property of the chain
+            if (negativeTimeout > 0 && !(e instanceof OCSPUnavailableException)) {
+                put(key, new Entry(now + negativeTimeout, e), now);
+            }
+            throw e;
+        }
+
+        long expires = getExpirationTime(chain, now);
+        if (expires > now) {
+            put(key, new Entry(expires, null), now);
+        }
+    }
+
+    long getExpirationTime(X509Certificate[] chain, long now) throws CertificateException {
+
+        long expires = now + timeout;
+
+        for (X509Certificate cert : chain) {
+            expires = Math.min(expires, cert.getNotAfter().getTime());
+        }
+
+        if (revocationChecker == null) {
+            return expires;
+        }
+
+        X509Certificate cert = chain[0];
+        if (cert.getSubjectX500Principal().equals(cert.getIssuerX500Principal())) {
+            return expires;
+        }
+
+        // the issuer found by RevocationTrustManager for the same chain
+        X509Certificate issuer = RevocationTrustManager.getIssuer(chain);
+        if (issuer == null) {
+            return 0;
+        }
+
+        return Math.min(expires, revocationChecker.getExpirationTime(cert, issuer));
+    }
+
+    static String getKey(X509Certificate[] chain, String authType) throws CertificateException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CertificateException(e.getMessage(), e);
+        }
+
+        for (X509Certificate cert : chain) {
+            digest.update(cert.getEncoded());
+        }
+
+        if (authType != null) {
+            digest.update(authType.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    void put(String key, Entry entry, long now) {
+        entries.put(key, entry, entry.expires, now);
+    }
+
+    public void clear() {
+        logger.info("ValidationCache: clearing {} cached result(s)", entries.size());
+        entries.clear();
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
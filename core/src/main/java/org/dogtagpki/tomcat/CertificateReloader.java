@@ -0,0 +1,285 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.apache.tomcat.util.net.SSLContext;
+import org.apache.tomcat.util.net.SSLHostConfigCertificate;
+import org.apache.tomcat.util.net.jss.TomcatJSS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reloads the server certificates of a connector when the NSS database
+ * or the server certificate nickname file changes.
+ *
+ * The reload re-reads the nickname file, updates the key alias of the
+ * certificates that used the previous nickname and asks Tomcat to rebuild
+ * the SSL contexts. Tomcat swaps the new context into the SSLHostConfig;
+ * connections that are already open keep their engines from the old
+ * context, so they are not dropped.
+ *
+ * The replaced contexts are then destroyed, which closes the engines
+ * in their pools. Those engines were never handed out, so destroying
+ * the context does not affect open connections.
+ */
+public class CertificateReloader implements Runnable {
+
+    public static final Logger logger = LoggerFactory.getLogger(CertificateReloader.class);
+
+    // certutil and pki tools write the database in several steps,
+    // so wait until the files have been quiet for this long
+    static final long QUIET_PERIOD = 2000; // milliseconds
+
+    // NSS database files that hold certificates and keys; other files in
+    // the database directory (e.g. pkcs11.txt, sqlite journals, lock
+    // files) change without affecting the server certificates
+    static final Set<String> CERTDB_FILES = Set.of("cert9.db", "key4.db", "cert8.db", "key3.db");
+
+    private final Http11NioProtocol protocol;
+    private final TomcatJSS tomcatjss;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    private final Set<Path> directories = new HashSet<>();
+    private Path certdbDir;
+    private Path nickFile;
+    private Path ecNickFile;
+
+    public CertificateReloader(Http11NioProtocol protocol, TomcatJSS tomcatjss) {
+        this.protocol = protocol;
+        this.tomcatjss = tomcatjss;
+    }
+
+    public synchronized void start() throws IOException {
+
+        if (thread != null) {
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+
+        certdbDir = Paths.get(tomcatjss.getCertdbDir()).toAbsolutePath();
+        register(certdbDir);
+
+        String serverCertNickFile = tomcatjss.getServerCertNickFile();
+        if (StringUtils.isNotEmpty(serverCertNickFile)) {
+            nickFile = Paths.get(serverCertNickFile).toAbsolutePath();
+            register(nickFile.getParent());
+        }
+
+        String serverECCertNickFile = tomcatjss.getServerECCertNickFile();
+        if (StringUtils.isNotEmpty(serverECCertNickFile)) {
+            ecNickFile = Paths.get(serverECCertNickFile).toAbsolutePath();
+            register(ecNickFile.getParent());
+        }
+
+        thread = new Thread(this, "TomcatJSS-CertificateReloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void register(Path dir) throws IOException {
+
+        if (!directories.add(dir)) {
+            return;
+        }
+
+        logger.info("CertificateReloader: watching {}", dir);
+        dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    public synchronized void stop() {
+
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("CertificateReloader: unable to close watch service: {}", e.getMessage(), e);
+        }
+
+        thread.interrupt();
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = poll(key);
+
+                // collect the rest of the burst before reloading
+                while ((key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= poll(key);
+                }
+
+                if (changed) {
+                    reload();
+                }
+            }
+
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("CertificateReloader: stopped");
+        }
+    }
+
+    private boolean poll(WatchKey key) {
+
+        Path dir = (Path) key.watchable();
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            Path file = dir.resolve((Path) event.context());
+            logger.debug("CertificateReloader: {} {}", event.kind().name(), file);
+
+            // the directories may contain unrelated files
+            if (isCertdbFile(dir, file) || file.equals(nickFile) || file.equals(ecNickFile)) {
+                changed = true;
+            }
+        }
+
+        key.reset();
+        return changed;
+    }
+
+    private boolean isCertdbFile(Path dir, Path file) {
+        // sqlite journals are named after the database (e.g. cert9.db-journal)
+        return dir.equals(certdbDir) && CERTDB_FILES.contains(file.getFileName().toString());
+    }
+
+    /**
+     * Re-reads the server certificate nicknames and rebuilds the SSL
+     * contexts of the connector.
+     */
+    public synchronized void reload() {
+
+        logger.info("CertificateReloader: reloading server certificates");
+
+        try {
+            String previous = tomcatjss.reloadServerCertNick();
+            updateAlias(previous, tomcatjss.getServerCertNick());
+
+            String previousEC = tomcatjss.reloadServerECCertNick();
+            updateAlias(previousEC, tomcatjss.getServerECCertNick());
+
+            Map<SSLHostConfigCertificate, SSLContext> previousContexts = getSslContexts();
+
+            // new contexts are created for all host configs
+            protocol.reloadSslHostConfigs();
+
+            destroyReplacedContexts(previousContexts);
+
+        } catch (Exception e) {
+            // keep serving with the current certificates
+            logger.error("CertificateReloader: unable to reload server certificates: {}", e.getMessage(), e);
+        }
+    }
+
+    private Map<SSLHostConfigCertificate, SSLContext> getSslContexts() {
+
+        Map<SSLHostConfigCertificate, SSLContext> contexts = new IdentityHashMap<>();
+
+        for (SSLHostConfig sslHostConfig : protocol.findSslHostConfigs()) {
+            for (SSLHostConfigCertificate certificate : sslHostConfig.getCertificates(true)) {
+                SSLContext context = certificate.getSslContext();
+                if (context != null) {
+                    contexts.put(certificate, context);
+                }
+            }
+        }
+
+        return contexts;
+    }
+
+    /**
+     * Destroys the contexts that have been replaced by the reload.
+     * Tomcat does not do that since open connections may still use them,
+     * but JSSContext.destroy() only releases the pooled engines and the
+     * cached key materials, not the engines that have been handed out.
+     */
+    private void destroyReplacedContexts(Map<SSLHostConfigCertificate, SSLContext> previousContexts) {
+
+        for (Map.Entry<SSLHostConfigCertificate, SSLContext> entry : previousContexts.entrySet()) {
+
+            SSLContext previous = entry.getValue();
+            if (entry.getKey().getSslContext() == previous) {
+                continue;
+            }
+
+            logger.debug("CertificateReloader: destroying previous context of {}",
+                    entry.getKey().getCertificateKeyAlias());
+
+            try {
+                previous.destroy();
+            } catch (RuntimeException e) {
+                logger.warn("CertificateReloader: unable to destroy previous context: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void updateAlias(String previous, String current) {
+
+        if (current == null || current.equals(previous)) {
+            return;
+        }
+
+        logger.info("CertificateReloader: server certificate changed from {} to {}", previous, current);
+
+        for (SSLHostConfig sslHostConfig : protocol.findSslHostConfigs()) {
+            for (SSLHostConfigCertificate certificate : sslHostConfig.getCertificates(true)) {
+                if (Objects.equals(certificate.getCertificateKeyAlias(), previous)) {
+                    certificate.setCertificateKeyAlias(current);
+                }
+            }
+        }
+    }
+}
@@ -4,7 +4,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.apache.tomcat.util.net.SSLHostConfigCertificate;
+import org.apache.tomcat.util.net.jss.TokenLoginListener;
 import org.apache.tomcat.util.net.jss.TomcatJSS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +20,11 @@ public class Http11NioProtocol extends org.apache.coyote.http11.Http11NioProtoco
 
     TomcatJSS tomcatjss = TomcatJSS.getInstance();
 
+    CertificateReloader certificateReloader;
+
+    // rebuilds the SSL contexts when a token is logged into again
+    TokenLoginListener tokenLoginListener;
+
     public String getCertdbDir() {
         return tomcatjss.getCertdbDir();
     }
@@ -39,6 +49,54 @@ public class Http11NioProtocol extends org.apache.coyote.http11.Http11NioProtoco
         tomcatjss.setPasswordFile(passwordFile);
     }
 
+    public int getPasswordCacheTimeout() {
+        return tomcatjss.getPasswordCacheTimeout();
+    }
+
+    public void setPasswordCacheTimeout(int passwordCacheTimeout) {
+        tomcatjss.setPasswordCacheTimeout(passwordCacheTimeout);
+    }
+
+    public int getPasswordTimeout() {
+        return tomcatjss.getPasswordTimeout();
+    }
+
+    public void setPasswordTimeout(int passwordTimeout) {
+        tomcatjss.setPasswordTimeout(passwordTimeout);
+    }
+
+    public int getLoginTimeout() {
+        return tomcatjss.getLoginTimeout();
+    }
+
+    public void setLoginTimeout(int loginTimeout) {
+        tomcatjss.setLoginTimeout(loginTimeout);
+    }
+
+    public int getLoginRetries() {
+        return tomcatjss.getLoginRetries();
+    }
+
+    public void setLoginRetries(int loginRetries) {
+        tomcatjss.setLoginRetries(loginRetries);
+    }
+
+    public int getLoginRetryDelay() {
+        return tomcatjss.getLoginRetryDelay();
+    }
+
+    public void setLoginRetryDelay(int loginRetryDelay) {
+        tomcatjss.setLoginRetryDelay(loginRetryDelay);
+    }
+
+    public int getTokenMonitorInterval() {
+        return tomcatjss.getTokenMonitorInterval();
+    }
+
+    public void setTokenMonitorInterval(int tokenMonitorInterval) {
+        tomcatjss.setTokenMonitorInterval(tokenMonitorInterval);
+    }
+
     public String getServerCertNickFile() {
         return tomcatjss.getServerCertNickFile();
     }
@@ -47,6 +105,22 @@ public class Http11NioProtocol extends org.apache.coyote.http11.Http11NioProtoco
         tomcatjss.setServerCertNickFile(serverCertNickFile);
     }
 
+    public String getSniServerCertNicks() {
+        return tomcatjss.getSniServerCertNicks();
+    }
+
+    public String getServerECCertNickFile() {
+        return tomcatjss.getServerECCertNickFile();
+    }
+
+    public void setServerECCertNickFile(String serverECCertNickFile) {
+        tomcatjss.setServerECCertNickFile(serverECCertNickFile);
+    }
+
+    public void setSniServerCertNicks(String sniServerCertNicks) {
+        tomcatjss.setSniServerCertNicks(sniServerCertNicks);
+    }
+
     public boolean getEnabledOCSP() {
         return tomcatjss.getEnableOCSP();
     }
@@ -103,6 +177,406 @@ public class Http11NioProtocol extends org.apache.coyote.http11.Http11NioProtoco
         tomcatjss.setOcspTimeout(ocspTimeout);
     }
 
+    public String getOcspCacheDirectory() {
+        return tomcatjss.getOcspCacheDirectory();
+    }
+
+    public void setOcspCacheDirectory(String ocspCacheDirectory) {
+        tomcatjss.setOcspCacheDirectory(ocspCacheDirectory);
+    }
+
+    public boolean getAsyncOCSP() {
+        return tomcatjss.getAsyncOCSP();
+    }
+
+    public void setAsyncOCSP(boolean asyncOCSP) {
+        tomcatjss.setAsyncOCSP(asyncOCSP);
+    }
+
+    public boolean getOcspSoftFail() {
+        return tomcatjss.getOcspSoftFail();
+    }
+
+    public void setOcspSoftFail(boolean ocspSoftFail) {
+        tomcatjss.setOcspSoftFail(ocspSoftFail);
+    }
+
+    public int getOcspHandshakeTimeout() {
+        return tomcatjss.getOcspHandshakeTimeout();
+    }
+
+    public void setOcspHandshakeTimeout(int ocspHandshakeTimeout) {
+        tomcatjss.setOcspHandshakeTimeout(ocspHandshakeTimeout);
+    }
+
+    public int getOcspFailureThreshold() {
+        return tomcatjss.getOcspFailureThreshold();
+    }
+
+    public void setOcspFailureThreshold(int ocspFailureThreshold) {
+        tomcatjss.setOcspFailureThreshold(ocspFailureThreshold);
+    }
+
+    public int getOcspRetryInterval() {
+        return tomcatjss.getOcspRetryInterval();
+    }
+
+    public void setOcspRetryInterval(int ocspRetryInterval) {
+        tomcatjss.setOcspRetryInterval(ocspRetryInterval);
+    }
+
+    public boolean getEnableOCSPStapling() {
+        return tomcatjss.getEnableOCSPStapling();
+    }
+
+    public void setEnableOCSPStapling(boolean enableOCSPStapling) {
+        tomcatjss.setEnableOCSPStapling(enableOCSPStapling);
+    }
+
+    public String getOcspStaplingResponderURL() {
+        return tomcatjss.getOcspStaplingResponderURL();
+    }
+
+    public void setOcspStaplingResponderURL(String ocspStaplingResponderURL) {
+        tomcatjss.setOcspStaplingResponderURL(ocspStaplingResponderURL);
+    }
+
+    public int getOcspStaplingTimeout() {
+        return tomcatjss.getOcspStaplingTimeout();
+    }
+
+    public void setOcspStaplingTimeout(int ocspStaplingTimeout) {
+        tomcatjss.setOcspStaplingTimeout(ocspStaplingTimeout);
+    }
+
+    public String getCrlDirectory() {
+        return tomcatjss.getCrlDirectory();
+    }
+
+    public void setCrlDirectory(String crlDirectory) {
+        tomcatjss.setCrlDirectory(crlDirectory);
+    }
+
+    public String getCrlIndexFile() {
+        return tomcatjss.getCrlIndexFile();
+    }
+
+    public void setCrlIndexFile(String crlIndexFile) {
+        tomcatjss.setCrlIndexFile(crlIndexFile);
+    }
+
+    public int getCrlUpdateInterval() {
+        return tomcatjss.getCrlUpdateInterval();
+    }
+
+    public void setCrlUpdateInterval(int crlUpdateInterval) {
+        tomcatjss.setCrlUpdateInterval(crlUpdateInterval);
+    }
+
+    public int getValidationCacheSize() {
+        return tomcatjss.getValidationCacheSize();
+    }
+
+    public void setValidationCacheSize(int validationCacheSize) {
+        tomcatjss.setValidationCacheSize(validationCacheSize);
+    }
+
+    public int getValidationCacheTimeout() {
+        return tomcatjss.getValidationCacheTimeout();
+    }
+
+    public void setValidationCacheTimeout(int validationCacheTimeout) {
+        tomcatjss.setValidationCacheTimeout(validationCacheTimeout);
+    }
+
+    public int getValidationCacheNegativeTimeout() {
+        return tomcatjss.getValidationCacheNegativeTimeout();
+    }
+
+    public void setValidationCacheNegativeTimeout(int validationCacheNegativeTimeout) {
+        tomcatjss.setValidationCacheNegativeTimeout(validationCacheNegativeTimeout);
+    }
+
+    public int getSessionCacheSize() {
+        return tomcatjss.getSessionCacheSize();
+    }
+
+    public void setSessionCacheSize(int sessionCacheSize) {
+        tomcatjss.setSessionCacheSize(sessionCacheSize);
+    }
+
+    public int getSessionCacheTimeout() {
+        return tomcatjss.getSessionCacheTimeout();
+    }
+
+    public void setSessionCacheTimeout(int sessionCacheTimeout) {
+        tomcatjss.setSessionCacheTimeout(sessionCacheTimeout);
+    }
+
+    public String getSessionCacheDirectory() {
+        return tomcatjss.getSessionCacheDirectory();
+    }
+
+    public void setSessionCacheDirectory(String sessionCacheDirectory) {
+        tomcatjss.setSessionCacheDirectory(sessionCacheDirectory);
+    }
+
+    public boolean getEnableSessionTickets() {
+        return tomcatjss.getEnableSessionTickets();
+    }
+
+    public void setEnableSessionTickets(boolean enableSessionTickets) {
+        tomcatjss.setEnableSessionTickets(enableSessionTickets);
+    }
+
+    public boolean getAsyncSocketListeners() {
+        return tomcatjss.getAsyncSocketListeners();
+    }
+
+    public void setAsyncSocketListeners(boolean asyncSocketListeners) {
+        tomcatjss.setAsyncSocketListeners(asyncSocketListeners);
+    }
+
+    public int getSocketListenerQueueSize() {
+        return tomcatjss.getSocketListenerQueueSize();
+    }
+
+    public void setSocketListenerQueueSize(int socketListenerQueueSize) {
+        tomcatjss.setSocketListenerQueueSize(socketListenerQueueSize);
+    }
+
+    public boolean getEnableMetrics() {
+        return tomcatjss.getEnableMetrics();
+    }
+
+    public void setEnableMetrics(boolean enableMetrics) {
+        tomcatjss.setEnableMetrics(enableMetrics);
+    }
+
+    public int getEnginePoolSize() {
+        return tomcatjss.getEnginePoolSize();
+    }
+
+    public void setEnginePoolSize(int enginePoolSize) {
+        tomcatjss.setEnginePoolSize(enginePoolSize);
+    }
+
+    public boolean getEnableCertReload() {
+        return tomcatjss.getEnableCertReload();
+    }
+
+    public void setEnableCertReload(boolean enableCertReload) {
+        tomcatjss.setEnableCertReload(enableCertReload);
+    }
+
+    /**
+     * Rebuilds the SSL contexts with the current server certificates.
+     */
+    public void reloadCertificates() {
+        CertificateReloader reloader = certificateReloader;
+        if (reloader == null) {
+            reloader = new CertificateReloader(this, tomcatjss);
+        }
+        reloader.reload();
+    }
+
+    @Override
+    public void init() throws Exception {
+
+        if (isSSLEnabled()) {
+            addECCertificate();
+            addSNIHostConfigs();
+        }
+
+        super.init();
+    }
+
+    /**
+     * Adds the EC server certificate from serverECCertNickFile to the
+     * default SSL host config next to the RSA certificate.
+     *
+     * For each connection Tomcat picks the certificate that matches the
+     * first cipher suite offered by the client (or by the server with
+     * honorCipherOrder) that either certificate can use, so clients that
+     * offer ECDSA suites first get the EC certificate and RSA-only clients
+     * get the RSA certificate. TLS 1.3 suites do not depend on the key
+     * type, so TLS 1.3 clients are matched by the TLS 1.2 suites they
+     * also offer; a client that only offers TLS 1.3 suites gets the first
+     * certificate, which is the EC one unless server.xml already declares
+     * a typed RSA certificate. The signature_algorithms extension is not
+     * considered.
+     */
+    void addECCertificate() throws Exception {
+
+        String nickname = tomcatjss.getServerECCertNick();
+        if (StringUtils.isEmpty(nickname)) {
+            return;
+        }
+
+        SSLHostConfig defaultConfig = findSslHostConfig(getDefaultSSLHostConfigName());
+        if (defaultConfig == null) {
+            logger.warn("Http11NioProtocol: no default SSL host config for EC certificate {}", nickname);
+            return;
+        }
+
+        SSLHostConfigCertificate rsaCertificate = defaultConfig.getCertificates(true).iterator().next();
+
+        if (rsaCertificate.getType() != SSLHostConfigCertificate.Type.UNDEFINED) {
+            logger.info("Http11NioProtocol: adding EC certificate {}", nickname);
+            defaultConfig.addCertificate(createCertificate(
+                    defaultConfig, defaultConfig, SSLHostConfigCertificate.Type.EC, nickname));
+            return;
+        }
+
+        // A host config with several certificates needs typed certificates,
+        // and the type of an existing certificate cannot be changed, so the
+        // default host config is replaced with a copy.
+
+        logger.info("Http11NioProtocol: adding EC certificate {} next to RSA certificate {}",
+                nickname, rsaCertificate.getCertificateKeyAlias());
+
+        SSLHostConfig sslHostConfig = copySSLHostConfig(defaultConfig, defaultConfig.getHostName());
+
+        // the first certificate is used when no cipher suite matches
+        sslHostConfig.addCertificate(createCertificate(
+                sslHostConfig, defaultConfig, SSLHostConfigCertificate.Type.EC, nickname));
+        sslHostConfig.addCertificate(createCertificate(
+                sslHostConfig, defaultConfig, SSLHostConfigCertificate.Type.RSA,
+                rsaCertificate.getCertificateKeyAlias()));
+
+        getEndpoint().addSslHostConfig(sslHostConfig, true);
+    }
+
+    /**
+     * Adds an SSL host config for each hostname in sniServerCertNicks
+     * that does not have one in server.xml. The new configs copy the
+     * settings of the default config and only differ in the certificate.
+     *
+     * Tomcat selects the host config by the SNI hostname in the
+     * ClientHello with a map lookup and keeps one SSL context per
+     * certificate, so all hostnames share this connector, the NSS
+     * database and the session cache.
+     */
+    void addSNIHostConfigs() throws Exception {
+
+        Map<String, String> nicknames = tomcatjss.getSNIServerCertNickMap();
+        if (nicknames.isEmpty()) {
+            return;
+        }
+
+        SSLHostConfig defaultConfig = findSslHostConfig(getDefaultSSLHostConfigName());
+
+        for (Map.Entry<String, String> entry : nicknames.entrySet()) {
+
+            String hostname = entry.getKey();
+            String nickname = entry.getValue();
+
+            if (findSslHostConfig(hostname) != null) {
+                logger.info("Http11NioProtocol: using SSL host config for {} from server.xml", hostname);
+                continue;
+            }
+
+            logger.info("Http11NioProtocol: adding SSL host config for {}: {}", hostname, nickname);
+
+            SSLHostConfig sslHostConfig = copySSLHostConfig(defaultConfig, hostname);
+            sslHostConfig.addCertificate(createCertificate(
+                    sslHostConfig, defaultConfig, SSLHostConfigCertificate.Type.UNDEFINED, nickname));
+
+            addSslHostConfig(sslHostConfig);
+        }
+    }
+
+    SSLHostConfig findSslHostConfig(String hostname) {
+
+        for (SSLHostConfig sslHostConfig : findSslHostConfigs()) {
+            if (sslHostConfig.getHostName().equalsIgnoreCase(hostname)) {
+                return sslHostConfig;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates an SSL host config without certificates that has the
+     * settings of the default config.
+     */
+    static SSLHostConfig copySSLHostConfig(SSLHostConfig defaultConfig, String hostname) {
+
+        SSLHostConfig sslHostConfig = new SSLHostConfig();
+        sslHostConfig.setHostName(hostname);
+
+        if (defaultConfig == null) {
+            return sslHostConfig;
+        }
+
+        sslHostConfig.setSslProtocol(defaultConfig.getSslProtocol());
+        sslHostConfig.setProtocols(String.join(",", defaultConfig.getProtocols()));
+        sslHostConfig.setCiphers(defaultConfig.getCiphers());
+        sslHostConfig.setHonorCipherOrder(defaultConfig.getHonorCipherOrder());
+        sslHostConfig.setCertificateVerification(defaultConfig.getCertificateVerification().name());
+        sslHostConfig.setCertificateVerificationDepth(defaultConfig.getCertificateVerificationDepth());
+        sslHostConfig.setSessionCacheSize(defaultConfig.getSessionCacheSize());
+        sslHostConfig.setSessionTimeout(defaultConfig.getSessionTimeout());
+        sslHostConfig.setTruststoreType(defaultConfig.getTruststoreType());
+        sslHostConfig.setTruststoreProvider(defaultConfig.getTruststoreProvider());
+
+        return sslHostConfig;
+    }
+
+    static SSLHostConfigCertificate createCertificate(
+            SSLHostConfig sslHostConfig,
+            SSLHostConfig defaultConfig,
+            SSLHostConfigCertificate.Type type,
+            String nickname) {
+
+        SSLHostConfigCertificate certificate = new SSLHostConfigCertificate(sslHostConfig, type);
+
+        if (defaultConfig != null) {
+            // the keystore settings select the NSS database, not a file
+            for (SSLHostConfigCertificate defaultCertificate : defaultConfig.getCertificates(true)) {
+                certificate.setCertificateKeystoreType(defaultCertificate.getCertificateKeystoreType());
+                certificate.setCertificateKeystoreProvider(defaultCertificate.getCertificateKeystoreProvider());
+                certificate.setCertificateKeystorePassword(defaultCertificate.getCertificateKeystorePassword());
+                break;
+            }
+        }
+
+        certificate.setCertificateKeyAlias(nickname);
+        return certificate;
+    }
+
+    @Override
+    public void start() throws Exception {
+        super.start();
+
+        if (isSSLEnabled()) {
+            tokenLoginListener = tag -> reloadCertificates();
+            tomcatjss.addTokenLoginListener(tokenLoginListener);
+        }
+
+        if (tomcatjss.getEnableCertReload() && isSSLEnabled()) {
+            certificateReloader = new CertificateReloader(this, tomcatjss);
+            certificateReloader.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+
+        if (tokenLoginListener != null) {
+            tomcatjss.removeTokenLoginListener(tokenLoginListener);
+            tokenLoginListener = null;
+        }
+
+        if (certificateReloader != null) {
+            certificateReloader.stop();
+            certificateReloader = null;
+        }
+
+        super.stop();
+    }
+
     public void setKeystorePassFile(String keystorePassFile) {
         try {
             Path path = Paths.get(keystorePassFile);
@@ -47,6 +47,11 @@ public class JSSListener implements LifecycleListener {
 
         if (type.equals(Lifecycle.BEFORE_INIT_EVENT)) {
             initJSS();
+
+        } else if (type.equals(Lifecycle.AFTER_DESTROY_EVENT)) {
+            // paired with the init so that a stop and start of the
+            // server keeps the JSS threads running
+            shutdownJSS();
         }
     }
 
@@ -63,4 +68,11 @@ public class JSSListener implements LifecycleListener {
             throw new RuntimeException(e);
         }
     }
+
+    public void shutdownJSS() {
+
+        logger.info("JSSListener: Shutting down JSS");
+
+        TomcatJSS.getInstance().shutdown();
+    }
 }
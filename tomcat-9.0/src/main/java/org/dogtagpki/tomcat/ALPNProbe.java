@@ -0,0 +1,197 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+
+package org.dogtagpki.tomcat;
+
+import java.nio.ByteBuffer;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.mozilla.jss.ssl.javax.JSSEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks whether JSSEngine negotiates ALPN by running a handshake
+ * between a client and a server engine through in-memory buffers.
+ *
+ * Tomcat sets the protocols common to the client and the connector
+ * through SSLParameters and reads the result with
+ * SSLEngine.getApplicationProtocol(), so the probe does the same.
+ */
+final class ALPNProbe {
+
+    public static final Logger logger = LoggerFactory.getLogger(ALPNProbe.class);
+
+    private static final int MAX_HANDSHAKE_STEPS = 1000;
+
+    private static final String PROTOCOL = "h2";
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private ALPNProbe() {
+    }
+
+    /**
+     * Returns true if a handshake with the server certificate negotiates
+     * the protocol offered by the client and accepted by the server.
+     */
+    static boolean run(String provider, String alias) {
+
+        SSLEngine client = null;
+        SSLEngine server = null;
+
+        try {
+            // the probe does not exchange data, so the client accepts
+            // any server certificate
+            SSLContext clientContext = SSLContext.getInstance("TLS", provider);
+            clientContext.init(null, new TrustManager[] { new ProbeTrustManager() }, null);
+
+            client = clientContext.createSSLEngine();
+            client.setUseClientMode(true);
+            setApplicationProtocols(client, PROTOCOL, "http/1.1");
+
+            SSLContext serverContext = SSLContext.getInstance("TLS", provider);
+            serverContext.init(JSSProviderCache.getKeyManagers(), null, null);
+
+            server = serverContext.createSSLEngine();
+            server.setUseClientMode(false);
+            if (server instanceof JSSEngine) {
+                ((JSSEngine) server).setCertFromAlias(alias);
+            }
+            setApplicationProtocols(server, PROTOCOL);
+
+            handshake(client, server);
+
+            String clientProtocol = client.getApplicationProtocol();
+            String serverProtocol = server.getApplicationProtocol();
+            logger.debug("ALPNProbe: client protocol: {}, server protocol: {}", clientProtocol, serverProtocol);
+
+            return PROTOCOL.equals(clientProtocol) && PROTOCOL.equals(serverProtocol);
+
+        } catch (Exception e) {
+            logger.warn("ALPNProbe: unable to negotiate ALPN: {}", e.getMessage(), e);
+            return false;
+
+        } finally {
+            close(client);
+            close(server);
+        }
+    }
+
+    private static void setApplicationProtocols(SSLEngine engine, String... protocols) {
+        SSLParameters params = engine.getSSLParameters();
+        params.setApplicationProtocols(protocols);
+        engine.setSSLParameters(params);
+    }
+
+    private static void handshake(SSLEngine client, SSLEngine server) throws SSLException {
+
+        int packetSize = Math.max(client.getSession().getPacketBufferSize(), server.getSession().getPacketBufferSize());
+        int appSize = Math.max(client.getSession().getApplicationBufferSize(), server.getSession().getApplicationBufferSize());
+
+        // kept in write mode between steps
+        ByteBuffer clientToServer = ByteBuffer.allocate(4 * packetSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(4 * packetSize);
+        ByteBuffer app = ByteBuffer.allocate(4 * appSize);
+
+        client.beginHandshake();
+        server.beginHandshake();
+
+        int steps = 0;
+        while (isHandshaking(client) || isHandshaking(server)) {
+
+            if (++steps > MAX_HANDSHAKE_STEPS) {
+                throw new SSLException("Handshake did not complete after " + MAX_HANDSHAKE_STEPS + " steps");
+            }
+
+            step(client, serverToClient, clientToServer, app);
+            step(server, clientToServer, serverToClient, app);
+        }
+    }
+
+    private static boolean isHandshaking(SSLEngine engine) {
+        HandshakeStatus status = engine.getHandshakeStatus();
+        return status != HandshakeStatus.NOT_HANDSHAKING && status != HandshakeStatus.FINISHED;
+    }
+
+    private static void step(SSLEngine engine, ByteBuffer in, ByteBuffer out, ByteBuffer app) throws SSLException {
+
+        switch (engine.getHandshakeStatus()) {
+        case NEED_WRAP:
+            engine.wrap(EMPTY, out);
+            break;
+
+        case NEED_UNWRAP:
+            in.flip();
+            app.clear();
+            engine.unwrap(in, app);
+            in.compact();
+            break;
+
+        case NEED_TASK:
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+            break;
+
+        default:
+            break;
+        }
+    }
+
+    private static void close(SSLEngine engine) {
+
+        if (engine == null) {
+            return;
+        }
+
+        engine.closeOutbound();
+        try {
+            engine.closeInbound();
+        } catch (SSLException e) {
+            // no close_notify from the peer
+        }
+    }
+
+    private static class ProbeTrustManager implements X509TrustManager {
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -2,14 +2,19 @@ package org.dogtagpki.tomcat;
 
 import java.security.KeyManagementException;
 import java.security.SecureRandom;
+import java.util.Collections;
 
 import javax.net.ssl.KeyManager;
-import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.TrustManager;
-import javax.net.ssl.TrustManagerFactory;
 
+import org.apache.tomcat.util.net.jss.SSLEngineCreationEvent;
 import org.apache.tomcat.util.net.jss.TomcatJSS;
+import org.mozilla.jss.CryptoManager;
 import org.mozilla.jss.JSSProvider;
+import org.mozilla.jss.crypto.PrivateKey;
+import org.mozilla.jss.crypto.X509Certificate;
+import org.mozilla.jss.pkcs11.PK11Cert;
+import org.mozilla.jss.pkcs11.PK11PrivKey;
 import org.mozilla.jss.provider.javax.crypto.JSSKeyManager;
 import org.mozilla.jss.provider.javax.crypto.JSSTrustManager;
 import org.mozilla.jss.ssl.javax.JSSEngine;
@@ -25,18 +30,24 @@ public class JSSContext implements org.apache.tomcat.util.net.SSLContext {
     private JSSKeyManager jkm;
     private JSSTrustManager jtm;
 
+    /* Server certificate and key resolved from the alias once per
+     * context instead of on every createSSLEngine() call. */
+    private volatile PK11Cert cert;
+    private volatile PK11PrivKey key;
+
+    private volatile SSLEnginePool enginePool;
+
     public JSSContext(String alias) {
         logger.debug("JSSContext(" + alias + ")");
         this.alias = alias;
 
         /* These KeyManagers and TrustManagers aren't used with the SSLEngine;
-         * they're only used to implement certain function calls below. */
+         * they're only used to implement certain function calls below.
+         * They are stateless so the same instances are shared by all
+         * contexts. */
         try {
-            KeyManagerFactory kmf = KeyManagerFactory.getInstance("NssX509", "Mozilla-JSS");
-            jkm = (JSSKeyManager) kmf.getKeyManagers()[0];
-
-            TrustManagerFactory tmf = TrustManagerFactory.getInstance("NssX509", "Mozilla-JSS");
-            jtm = (JSSTrustManager) tmf.getTrustManagers()[0];
+            jkm = JSSProviderCache.getJSSKeyManager();
+            jtm = JSSProviderCache.getJSSTrustManager();
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -47,30 +58,116 @@ public class JSSContext implements org.apache.tomcat.util.net.SSLContext {
         logger.debug("JSSContext.init(...)");
 
         try {
-            String provider = "SunJSSE";
-            if (JSSProvider.ENABLE_JSSENGINE) {
-                provider = "Mozilla-JSS";
-            }
+            String provider = JSSProviderCache.getProviderName();
 
             ctx = javax.net.ssl.SSLContext.getInstance("TLS", provider);
             ctx.init(kms, tms, sr);
         } catch (Exception e) {
             throw new KeyManagementException(e.getMessage(), e);
         }
+
+        resolveKeyMaterials();
+
+        TomcatJSS instance = TomcatJSS.getInstance();
+        int enginePoolSize = instance == null ? 0 : instance.getEnginePoolSize();
+
+        // the probe context used for the provider capabilities has no alias
+        if (alias != null && enginePoolSize > 0) {
+            logger.debug("JSSContext: engine pool size: " + enginePoolSize);
+            enginePool = new SSLEnginePool(enginePoolSize, this::newSSLEngine);
+            enginePool.refill();
+        }
+    }
+
+    private void resolveKeyMaterials() {
+
+        cert = null;
+        key = null;
+
+        if (alias == null || !JSSProvider.ENABLE_JSSENGINE) {
+            return;
+        }
+
+        logger.debug("JSSContext: resolving certificate and key for " + alias);
+
+        try {
+            CryptoManager manager = CryptoManager.getInstance();
+            X509Certificate c = manager.findCertByNickname(alias);
+            PrivateKey k = manager.findPrivKeyByCert(c);
+
+            key = (PK11PrivKey) k;
+            cert = (PK11Cert) c;
+
+        } catch (Exception e) {
+            // fall back to resolving the alias for each engine
+            logger.warn("JSSContext: unable to resolve " + alias + ": " + e.getMessage(), e);
+        }
     }
 
     @Override
     public javax.net.ssl.SSLEngine createSSLEngine() {
         logger.debug("JSSContext.createSSLEngine()");
+
+        SSLEngineCreationEvent creationEvent = new SSLEngineCreationEvent();
+        creationEvent.begin();
+
+        SSLEnginePool pool = enginePool;
+        javax.net.ssl.SSLEngine eng = pool == null ? null : pool.poll();
+        boolean pooled = eng != null;
+
+        if (!pooled) {
+            eng = newSSLEngine();
+        }
+
+        TomcatJSS instance = TomcatJSS.getInstance();
+
+        if (eng instanceof JSSEngine && instance != null) {
+            // start timing when the engine is handed out, not when a
+            // pooled engine was created
+            instance.handshakeStarted(eng);
+        }
+
+        creationEvent.end();
+        if (creationEvent.shouldCommit()) {
+            creationEvent.alias = alias;
+            creationEvent.engineClass = eng.getClass().getName();
+            creationEvent.pooled = pooled;
+            creationEvent.commit();
+        }
+
+        return eng;
+    }
+
+    /**
+     * Creates an engine configured with the server certificate and the
+     * socket listeners of this context.
+     *
+     * The application protocols are not set here. Tomcat sets the
+     * protocols common to the client and the connector on each engine,
+     * so a client that only offers http/1.1 does not get an ALPN error.
+     */
+    private javax.net.ssl.SSLEngine newSSLEngine() {
+
         javax.net.ssl.SSLEngine eng = ctx.createSSLEngine();
 
-	TomcatJSS instance = TomcatJSS.getInstance();
+        TomcatJSS instance = TomcatJSS.getInstance();
 
         if (eng instanceof JSSEngine) {
             JSSEngine j_eng = (JSSEngine) eng;
-            j_eng.setCertFromAlias(alias);
+
+            PK11Cert c = cert;
+            PK11PrivKey k = key;
+
+            if (c != null && k != null) {
+                j_eng.setKeyMaterials(c, k);
+            } else {
+                j_eng.setCertFromAlias(alias);
+            }
             if(instance != null) {
-                j_eng.setListeners(instance.getSocketListeners());
+                // TomcatJSS forwards the events to the registered listeners
+                // (synchronously or through its dispatcher) so the engine
+                // never holds the mutable listener collection
+                j_eng.setListeners(Collections.singletonList(instance));
             }
         }
 
@@ -117,8 +214,22 @@ public class JSSContext implements org.apache.tomcat.util.net.SSLContext {
         }
     }
 
+    /**
+     * Closes the pooled engines. Engines already handed out keep working,
+     * and engines created afterwards resolve the alias again.
+     */
     @Override
     public void destroy() {
         logger.debug("JSSContext.destroy()");
+
+        if (enginePool != null) {
+            logger.debug("JSSContext: engine pool hits: " + enginePool.getHits()
+                    + ", misses: " + enginePool.getMisses());
+            enginePool.close();
+            enginePool = null;
+        }
+
+        cert = null;
+        key = null;
     }
 }
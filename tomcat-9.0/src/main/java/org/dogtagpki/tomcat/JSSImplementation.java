@@ -60,7 +60,9 @@ public class JSSImplementation extends SSLImplementation {
 
     @Override
     public boolean isAlpnSupported() {
-        // NSS supports ALPN but JSS doesn't yet support ALPN.
-        return false;
+        // Tomcat sets the application protocols common to the client and
+        // the connector on each engine, so only report ALPN support if the
+        // engine actually negotiates them.
+        return JSSProviderCache.isAlpnSupported();
     }
 }
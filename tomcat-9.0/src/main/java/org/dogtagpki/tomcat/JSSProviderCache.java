@@ -0,0 +1,284 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.tomcat.util.net.jss.RevocationChecker;
+import org.apache.tomcat.util.net.jss.RevocationTrustManager;
+import org.apache.tomcat.util.net.jss.TomcatJSS;
+import org.apache.tomcat.util.net.jss.ValidationCache;
+import org.apache.tomcat.util.net.jss.ValidationCacheTrustManager;
+import org.mozilla.jss.JSSProvider;
+import org.mozilla.jss.provider.javax.crypto.JSSKeyManager;
+import org.mozilla.jss.provider.javax.crypto.JSSNativeTrustManager;
+import org.mozilla.jss.provider.javax.crypto.JSSTrustManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide cache of the JSS provider capabilities and key/trust
+ * managers, keyed by provider mode.
+ *
+ * The supported protocols and ciphers and the "NssX509" managers do not
+ * depend on the host configuration, so they are created once instead of
+ * for every JSSUtil and JSSContext (i.e. for every SSL host config and
+ * every reload).
+ */
+final class JSSProviderCache {
+
+    public static final Logger logger = LoggerFactory.getLogger(JSSProviderCache.class);
+
+    private static final Map<String, Capabilities> capabilities = new ConcurrentHashMap<>();
+    private static final Map<String, TrustManager[]> trustManagers = new ConcurrentHashMap<>();
+    // milliseconds before a failed ALPN check is done again
+    static final long ALPN_RETRY_INTERVAL = 60 * 1000;
+
+    private static final Map<String, Boolean> alpnSupport = new ConcurrentHashMap<>();
+    private static final Map<String, Long> alpnFailures = new ConcurrentHashMap<>();
+    private static volatile String serverAlias;
+
+    private static volatile KeyManager[] keyManagers;
+    private static volatile JSSTrustManager jssTrustManager;
+
+    private JSSProviderCache() {
+    }
+
+    static final class Capabilities {
+
+        final Set<String> protocols;
+        final Set<String> ciphers;
+
+        Capabilities(Set<String> protocols, Set<String> ciphers) {
+            this.protocols = protocols;
+            this.ciphers = ciphers;
+        }
+    }
+
+    /**
+     * Returns the SSLContext provider used by JSSContext.
+     */
+    static String getProviderName() {
+        return JSSProvider.ENABLE_JSSENGINE ? "Mozilla-JSS" : "SunJSSE";
+    }
+
+    static Capabilities getCapabilities() {
+        return capabilities.computeIfAbsent(getProviderName(), JSSProviderCache::loadCapabilities);
+    }
+
+    private static Capabilities loadCapabilities(String provider) {
+
+        logger.debug("JSSProviderCache: loading {} capabilities", provider);
+
+        SSLEngine engine;
+        try {
+            JSSContext ctx = new JSSContext(null);
+            ctx.init(null, null, null);
+            engine = ctx.createSSLEngine();
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        try {
+            Set<String> protocols = Collections.unmodifiableSet(
+                new HashSet<>(Arrays.asList(engine.getSupportedProtocols()))
+            );
+
+            Set<String> ciphers = Collections.unmodifiableSet(
+                new HashSet<>(Arrays.asList(engine.getSupportedCipherSuites()))
+            );
+
+            return new Capabilities(protocols, ciphers);
+
+        } finally {
+            engine.closeOutbound();
+            try {
+                engine.closeInbound();
+            } catch (SSLException e) {
+                // the engine was never connected
+            }
+        }
+    }
+
+    /**
+     * Records the server certificate alias of an SSL host config so that
+     * the ALPN support can be checked with it.
+     */
+    static void setServerAlias(String alias) {
+        if (alias != null) {
+            serverAlias = alias;
+        }
+    }
+
+    /**
+     * Returns whether the engines of the provider negotiate ALPN.
+     *
+     * SunJSSE supports ALPN. For JSSEngine a handshake with the server
+     * certificate of an SSL host config (or serverCertNick) is done to
+     * check it (see ALPNProbe). Only a successful check is kept. Without
+     * a server certificate the check is skipped, and after a failed check
+     * it is retried once ALPN_RETRY_INTERVAL has passed.
+     */
+    static boolean isAlpnSupported() {
+
+        if (!JSSProvider.ENABLE_JSSENGINE) {
+            return true;
+        }
+
+        String provider = getProviderName();
+        if (alpnSupport.containsKey(provider)) {
+            return true;
+        }
+
+        return probeAlpn(provider);
+    }
+
+    private static synchronized boolean probeAlpn(String provider) {
+
+        if (alpnSupport.containsKey(provider)) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        Long failed = alpnFailures.get(provider);
+        if (failed != null && now - failed < ALPN_RETRY_INTERVAL) {
+            return false;
+        }
+
+        String alias = serverAlias;
+        if (alias == null) {
+            alias = TomcatJSS.getInstance().getServerCertNick();
+        }
+
+        if (alias == null) {
+            logger.debug("JSSProviderCache: no server certificate to check ALPN support");
+            return false;
+        }
+
+        boolean supported = ALPNProbe.run(provider, alias);
+        logger.debug("JSSProviderCache: {} ALPN support: {}", provider, supported);
+
+        if (supported) {
+            alpnSupport.put(provider, Boolean.TRUE);
+            alpnFailures.remove(provider);
+        } else {
+            alpnFailures.put(provider, now);
+        }
+
+        return supported;
+    }
+
+    static KeyManager[] getKeyManagers() throws Exception {
+
+        KeyManager[] kms = keyManagers;
+        if (kms == null) {
+            KeyManagerFactory kmf = KeyManagerFactory.getInstance("NssX509", "Mozilla-JSS");
+            kms = kmf.getKeyManagers();
+            keyManagers = kms;
+        }
+
+        return kms.clone();
+    }
+
+    static JSSKeyManager getJSSKeyManager() throws Exception {
+        return (JSSKeyManager) getKeyManagers()[0];
+    }
+
+    static TrustManager[] getTrustManagers() throws Exception {
+
+        String provider = getProviderName();
+
+        TrustManager[] tms = trustManagers.get(provider);
+        if (tms == null) {
+            if (JSSProvider.ENABLE_JSSENGINE) {
+                tms = new TrustManager[] { new JSSNativeTrustManager() };
+            } else {
+                TrustManagerFactory tmf = TrustManagerFactory.getInstance("NssX509");
+                tms = tmf.getTrustManagers();
+            }
+            trustManagers.putIfAbsent(provider, tms);
+        }
+
+        tms = tms.clone();
+
+        // Check client certificate revocation in tomcatjss if configured.
+        // JSSEngine only validates with NSS when the trust managers are a
+        // single bare JSSNativeTrustManager, which is only a marker and does
+        // not validate anything itself, so wrap the JSS trust manager instead.
+        RevocationChecker checker = TomcatJSS.getInstance().getRevocationChecker();
+        if (checker != null) {
+            for (int i = 0; i < tms.length; i++) {
+                if (tms[i] instanceof JSSNativeTrustManager) {
+                    tms[i] = getJSSTrustManager();
+                }
+                if (tms[i] instanceof X509TrustManager) {
+                    tms[i] = new RevocationTrustManager((X509TrustManager) tms[i], checker);
+                }
+            }
+        }
+
+        // Reuse the results of previous client certificate validations.
+        // The native marker is kept as is: replacing it would move the
+        // validation off NSS, and with it the revocation check that NSS
+        // does when OCSP is enabled without a tomcatjss checker.
+        ValidationCache validationCache = TomcatJSS.getInstance().getValidationCache();
+        if (validationCache != null) {
+            for (int i = 0; i < tms.length; i++) {
+                if (tms[i] instanceof JSSNativeTrustManager) {
+                    logger.warn("JSSProviderCache: client certificates are validated by NSS, validation cache not used");
+                    continue;
+                }
+                if (tms[i] instanceof X509TrustManager) {
+                    tms[i] = new ValidationCacheTrustManager((X509TrustManager) tms[i], validationCache);
+                }
+            }
+        }
+
+        return tms;
+    }
+
+    /**
+     * Returns the JSS trust manager used to list the accepted issuers.
+     */
+    static JSSTrustManager getJSSTrustManager() throws Exception {
+
+        JSSTrustManager tm = jssTrustManager;
+        if (tm == null) {
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance("NssX509", "Mozilla-JSS");
+            tm = (JSSTrustManager) tmf.getTrustManagers()[0];
+            jssTrustManager = tm;
+        }
+
+        return tm;
+    }
+}
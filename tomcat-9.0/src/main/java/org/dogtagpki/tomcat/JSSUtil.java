@@ -19,32 +19,23 @@
 
 package org.dogtagpki.tomcat;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import javax.net.ssl.KeyManager;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLEngine;
 import javax.net.ssl.TrustManager;
-import javax.net.ssl.TrustManagerFactory;
 
 import org.apache.juli.logging.Log;
 import org.apache.juli.logging.LogFactory;
 import org.apache.tomcat.util.net.SSLContext;
 import org.apache.tomcat.util.net.SSLHostConfigCertificate;
 import org.apache.tomcat.util.net.SSLUtilBase;
-import org.mozilla.jss.JSSProvider;
-import org.mozilla.jss.provider.javax.crypto.JSSNativeTrustManager;
 
 public class JSSUtil extends SSLUtilBase {
     public static Log logger = LogFactory.getLog(JSSUtil.class);
 
     private String keyAlias;
 
-    private SSLEngine engine;
     private Set<String> protocols;
     private Set<String> ciphers;
 
@@ -52,47 +43,31 @@ public class JSSUtil extends SSLUtilBase {
         super(cert);
 
         keyAlias = certificate.getCertificateKeyAlias();
+        JSSProviderCache.setServerAlias(keyAlias);
         logger.debug("JSSUtil: instance created");
     }
 
     private void init() {
-        if (engine != null) {
+        if (protocols != null) {
             return;
         }
 
-        try {
-            JSSContext ctx = new JSSContext(null);
-            ctx.init(null, null, null);
-            engine = ctx.createSSLEngine();
-        } catch (Exception e) {
-            throw new RuntimeException(e.getMessage(), e);
-        }
-
-        protocols = Collections.unmodifiableSet(
-            new HashSet<>(Arrays.asList(engine.getSupportedProtocols()))
-        );
-
-        ciphers = Collections.unmodifiableSet(
-            new HashSet<>(Arrays.asList(engine.getSupportedCipherSuites()))
-        );
+        // shared by all JSSUtil instances, see JSSProviderCache
+        JSSProviderCache.Capabilities capabilities = JSSProviderCache.getCapabilities();
+        protocols = capabilities.protocols;
+        ciphers = capabilities.ciphers;
     }
 
     @Override
     public KeyManager[] getKeyManagers() throws Exception {
         logger.debug("JSSUtil: getKeyManagers()");
-        KeyManagerFactory jkm = KeyManagerFactory.getInstance("NssX509", "Mozilla-JSS");
-        return jkm.getKeyManagers();
+        return JSSProviderCache.getKeyManagers();
     }
 
     @Override
     public TrustManager[] getTrustManagers() throws Exception {
         logger.debug("JSSUtil: getTrustManagers()");
-        if (!JSSProvider.ENABLE_JSSENGINE) {
-            TrustManagerFactory tmf = TrustManagerFactory.getInstance("NssX509");
-            return tmf.getTrustManagers();
-        }
-
-        return new TrustManager[] { new JSSNativeTrustManager() };
+        return JSSProviderCache.getTrustManagers();
     }
 
     @Override
@@ -0,0 +1,160 @@
+/* BEGIN COPYRIGHT BLOCK
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Copyright (C) 2026 Red Hat, Inc.
+ * All rights reserved.
+ * END COPYRIGHT BLOCK */
+
+package org.dogtagpki.tomcat;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+
+import org.apache.tomcat.util.net.jss.SSLMetrics;
+import org.apache.tomcat.util.net.jss.TomcatJSS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of ready-to-use server engines for a JSSContext.
+ *
+ * An SSLEngine cannot be reset once it has been used, so the pool holds
+ * freshly constructed and configured engines which are created ahead of
+ * demand on a background thread. Taking an engine from the pool moves
+ * the construction cost off the thread that accepts the connection.
+ */
+public class SSLEnginePool {
+
+    public static final Logger logger = LoggerFactory.getLogger(SSLEnginePool.class);
+
+    // shared by all pools, engine construction is short and not blocking
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "TomcatJSS-SSLEnginePool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BlockingQueue<SSLEngine> engines;
+    private final Supplier<SSLEngine> factory;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean closed;
+
+    public SSLEnginePool(int size, Supplier<SSLEngine> factory) {
+        this.engines = new ArrayBlockingQueue<>(size);
+        this.factory = factory;
+    }
+
+    /**
+     * Returns a pooled engine, or null if the pool is empty. Either way
+     * the pool is refilled in the background.
+     */
+    public SSLEngine poll() {
+
+        SSLEngine engine = engines.poll();
+        boolean pooled = engine != null;
+
+        if (pooled) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        SSLMetrics metrics = TomcatJSS.getInstance().getMetrics();
+        if (metrics != null) {
+            metrics.engineTaken(pooled);
+        }
+
+        refill();
+        return engine;
+    }
+
+    /**
+     * Fills the pool up to its capacity in the background.
+     */
+    public void refill() {
+
+        if (closed || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                while (!closed && engines.remainingCapacity() > 0) {
+                    SSLEngine engine = factory.get();
+                    if (!engines.offer(engine)) {
+                        close(engine);
+                        break;
+                    }
+                }
+
+                if (closed) {
+                    clear();
+                }
+
+            } catch (RuntimeException e) {
+                logger.warn("SSLEnginePool: unable to create engine: {}", e.getMessage(), e);
+
+            } finally {
+                refilling.set(false);
+            }
+        });
+    }
+
+    public void close() {
+        closed = true;
+        clear();
+    }
+
+    private void clear() {
+        SSLEngine engine;
+        while ((engine = engines.poll()) != null) {
+            close(engine);
+        }
+    }
+
+    private static void close(SSLEngine engine) {
+        engine.closeOutbound();
+        try {
+            engine.closeInbound();
+        } catch (SSLException e) {
+            // the engine was never connected
+        }
+    }
+
+    public int getSize() {
+        return engines.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}